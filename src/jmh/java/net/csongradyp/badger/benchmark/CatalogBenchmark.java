@@ -0,0 +1,75 @@
+package net.csongradyp.badger.benchmark;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import net.csongradyp.badger.AchievementDefinition;
+import net.csongradyp.badger.Badger;
+import net.csongradyp.badger.domain.AchievementType;
+import net.csongradyp.badger.domain.achievement.IAchievement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups of the compiled {@link AchievementDefinition} catalog.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int achievementCount;
+
+    private AchievementDefinition achievementDefinition;
+    private String[] ids;
+    private String[] events;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final SyntheticDefinition definition = new SyntheticDefinition(achievementCount);
+        achievementDefinition = new Badger(definition.write()).getController().getAchievementDefinition();
+        ids = new String[achievementCount];
+        for (int i = 0; i < achievementCount; i++) {
+            ids[i] = SyntheticDefinition.achievementId(SyntheticDefinition.TYPES[i % SyntheticDefinition.TYPES.length], i);
+        }
+        events = new String[definition.getEventCount()];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = definition.event(i);
+        }
+    }
+
+    @Benchmark
+    public Optional<IAchievement> getById() {
+        return achievementDefinition.get(ids[counter++ % ids.length]);
+    }
+
+    @Benchmark
+    public Optional<IAchievement> getByTypeAndId() {
+        return achievementDefinition.get(AchievementType.SCORE, ids[counter++ % ids.length]);
+    }
+
+    @Benchmark
+    public Collection<IAchievement> getSubscribedForEvent() {
+        return achievementDefinition.getAchievementsSubscribedFor(events[counter++ % events.length]);
+    }
+
+    @Benchmark
+    public int getEventIndex() {
+        return achievementDefinition.getEventIndex(events[counter++ % events.length]);
+    }
+}
@@ -0,0 +1,62 @@
+package net.csongradyp.badger.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import net.csongradyp.badger.Badger;
+import net.csongradyp.badger.domain.AchievementType;
+import net.csongradyp.badger.domain.achievement.CompositeAchievementBean;
+import net.csongradyp.badger.domain.achievement.IAchievement;
+import net.csongradyp.badger.domain.achievement.relation.CompiledRelation;
+import net.csongradyp.badger.domain.achievement.relation.Relation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluation of the parsed composite achievement relations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeBenchmark {
+
+    private Relation[] relations;
+    private CompiledRelation[] compiledRelations;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final SyntheticDefinition definition = new SyntheticDefinition(7000);
+        relations = new Badger(definition.write()).getController().getAchievementDefinition().getAchievementsOfType(AchievementType.COMPOSITE).stream()
+                .map(CompositeBenchmark::relationOf)
+                .toArray(Relation[]::new);
+        compiledRelations = Arrays.stream(relations).map(CompiledRelation::compile).toArray(CompiledRelation[]::new);
+    }
+
+    private static Relation relationOf(final IAchievement achievement) {
+        return ((CompositeAchievementBean) achievement).getRelation();
+    }
+
+    @Benchmark
+    public boolean evaluateRelation() {
+        final int index = counter++;
+        return relations[index % relations.length].evaluate(index & 1023, 1 + index % 366, index % 1440);
+    }
+
+    @Benchmark
+    public boolean evaluateCompiledRelation() {
+        final int index = counter++;
+        return compiledRelations[index % compiledRelations.length].evaluate(index & 1023, 1 + index % 366, index % 1440);
+    }
+}
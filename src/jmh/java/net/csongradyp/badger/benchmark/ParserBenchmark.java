@@ -0,0 +1,57 @@
+package net.csongradyp.badger.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import net.csongradyp.badger.AchievementDefinition;
+import net.csongradyp.badger.parser.json.AchievementJsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * Parsing and compilation of achievement definition files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int achievementCount;
+
+    private ConfigurableApplicationContext applicationContext;
+    private AchievementJsonParser parser;
+    private File definitionFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        applicationContext = new ClassPathXmlApplicationContext("META-INF/beans.xml");
+        parser = applicationContext.getBean(AchievementJsonParser.class);
+        definitionFile = new SyntheticDefinition(achievementCount).write();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public AchievementDefinition parse() {
+        return parser.parse(definitionFile);
+    }
+}
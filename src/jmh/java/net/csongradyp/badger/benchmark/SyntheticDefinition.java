@@ -0,0 +1,100 @@
+package net.csongradyp.badger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates achievement definition files of the given size with achievements of every type spread evenly over the events.
+ */
+final class SyntheticDefinition {
+
+    static final String[] TYPES = {"score", "scoreRange", "date", "time", "timeRange", "single", "composite"};
+
+    private final int achievementCount;
+    private final int eventCount;
+
+    SyntheticDefinition(final int achievementCount) {
+        this.achievementCount = achievementCount;
+        eventCount = Math.max(10, achievementCount / 100);
+    }
+
+    int getEventCount() {
+        return eventCount;
+    }
+
+    String event(final int index) {
+        return "event" + (index % eventCount);
+    }
+
+    static String achievementId(final String type, final int index) {
+        return type + index;
+    }
+
+    File write() throws IOException {
+        final File file = File.createTempFile("badger-benchmark-" + achievementCount + "-", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), toJson().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    String toJson() {
+        final StringBuilder json = new StringBuilder("{\"events\":[");
+        for (int i = 0; i < eventCount; i++) {
+            json.append(i > 0 ? "," : "").append('"').append(event(i)).append('"');
+        }
+        json.append("],\"achievements\":{");
+        for (int t = 0; t < TYPES.length; t++) {
+            final List<String> achievements = new ArrayList<>();
+            for (int i = t; i < achievementCount; i += TYPES.length) {
+                achievements.add(achievement(TYPES[t], i));
+            }
+            json.append(t > 0 ? "," : "").append('"').append(TYPES[t]).append("\":[").append(String.join(",", achievements)).append(']');
+        }
+        return json.append("}}").toString();
+    }
+
+    private String achievement(final String type, final int index) {
+        final StringBuilder json = new StringBuilder("{\"id\":\"").append(achievementId(type, index)).append('"');
+        if (!"single".equals(type)) {
+            json.append(",\"subscription\":[\"").append(event(index)).append("\"]");
+        }
+        final int threshold = 1 + index % 1000;
+        switch (type) {
+            case "score":
+                json.append(",\"trigger\":[\"").append(threshold).append("+\",\"").append(threshold * 10).append("+\",\"").append(threshold * 100).append("+\"]");
+                break;
+            case "scoreRange":
+                json.append(",\"trigger\":[{\"start\":").append(threshold).append(",\"end\":").append(threshold * 2).append("}]");
+                break;
+            case "date":
+                json.append(",\"trigger\":[\"").append(date(index)).append("\"]");
+                break;
+            case "time":
+                json.append(",\"trigger\":[\"").append(time(index)).append("\"]");
+                break;
+            case "timeRange":
+                json.append(",\"trigger\":[{\"start\":\"").append(time(index)).append("\",\"end\":\"").append(time(index + 120)).append("\"}]");
+                break;
+            case "composite":
+                json.append(",\"relation\":\"score & (timeRange | date)\",\"scoreTrigger\":[\"").append(threshold).append("+\"]")
+                        .append(",\"timeRangeTrigger\":[{\"start\":\"").append(time(index)).append("\",\"end\":\"").append(time(index + 120)).append("\"}]")
+                        .append(",\"dateTrigger\":[\"").append(date(index)).append("\"]");
+                break;
+            default:
+                break;
+        }
+        return json.append('}').toString();
+    }
+
+    private static String date(final int index) {
+        return String.format("%02d-%02d", 1 + index % 12, 1 + index % 28);
+    }
+
+    private static String time(final int index) {
+        return String.format("%02d:%02d", (index / 60) % 24, index % 60);
+    }
+}
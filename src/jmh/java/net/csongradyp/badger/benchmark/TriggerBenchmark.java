@@ -0,0 +1,86 @@
+package net.csongradyp.badger.benchmark;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import net.csongradyp.badger.AchievementController;
+import net.csongradyp.badger.Badger;
+import net.csongradyp.badger.event.IAchievementUnlockedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Trigger and unlock hot paths of {@link AchievementController} against the in-memory repository.
+ * Owners and events are rotated, so after warmup most triggers evaluate achievements without unlocking new levels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TriggerBenchmark {
+
+    private static final int OWNER_COUNT = 1024;
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int achievementCount;
+
+    private AchievementController controller;
+    private SyntheticDefinition definition;
+    private String[] owners;
+    private String[] events;
+    private long score;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        definition = new SyntheticDefinition(achievementCount);
+        final File definitionFile = definition.write();
+        controller = new Badger(definitionFile).getController();
+        owners = new String[OWNER_COUNT];
+        for (int i = 0; i < OWNER_COUNT; i++) {
+            owners[i] = "owner" + i;
+        }
+        events = new String[definition.getEventCount()];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = definition.event(i);
+        }
+    }
+
+    private String nextOwner() {
+        return owners[counter & (OWNER_COUNT - 1)];
+    }
+
+    private String nextEvent() {
+        return events[(counter++ >>> 10) % events.length];
+    }
+
+    @Benchmark
+    public Collection<IAchievementUnlockedEvent> triggerIncrement() {
+        final String owner = nextOwner();
+        return controller.triggerEvent(owner, nextEvent());
+    }
+
+    @Benchmark
+    public Collection<IAchievementUnlockedEvent> triggerScore() {
+        final String owner = nextOwner();
+        return controller.triggerEvent(owner, nextEvent(), score++ % 200_000);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Collection<IAchievementUnlockedEvent> checkAndUnlock() {
+        return controller.checkAndUnlock(owners[counter++ & (OWNER_COUNT - 1)]);
+    }
+}
@@ -2,22 +2,34 @@ package net.csongradyp.badger;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
 import javax.inject.Named;
+import net.csongradyp.badger.domain.AchievementType;
 import net.csongradyp.badger.domain.IAchievementBean;
 import net.csongradyp.badger.domain.achievement.IAchievement;
+import net.csongradyp.badger.domain.achievement.ScoreAchievementBean;
+import net.csongradyp.badger.domain.achievement.trigger.ScoreTrigger;
 import net.csongradyp.badger.event.EventBus;
 import net.csongradyp.badger.event.IAchievementUnlockedEvent;
-import net.csongradyp.badger.event.message.AchievementUnlockedEvent;
-import net.csongradyp.badger.event.message.ScoreUpdatedEvent;
+import net.csongradyp.badger.exception.EventNotFoundException;
 import net.csongradyp.badger.factory.UnlockedEventFactory;
 import net.csongradyp.badger.provider.AchievementUnlockProviderFacade;
+import net.csongradyp.badger.provider.UnlockCandidate;
 import net.csongradyp.badger.repository.Repository;
+import net.csongradyp.badger.repository.ScoreChange;
+import net.csongradyp.badger.repository.ScoreUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,27 +47,58 @@ public class AchievementController {
     @Inject
     private Repository repository;
 
-    private AchievementDefinition achievementDefinition;
+    /**
+     * Immutable snapshot of the definitions. Every call reads it once and keeps using the same snapshot to the end,
+     * so a reload never affects triggers in flight.
+     */
+    private volatile AchievementDefinition achievementDefinition;
+    private volatile TierCatchUp tierCatchUp;
     private String internationalizationBaseName;
     private ResourceBundle resourceBundle;
+    private Map<Locale, ResourceBundle> resourceBundles = Collections.emptyMap();
 
     public AchievementController() {
         achievementDefinition = new AchievementDefinition();
+        tierCatchUp = new TierCatchUp(achievementDefinition, achievementDefinition);
     }
 
-    public void setAchievementDefinition(final AchievementDefinition achievementDefinition) {
+    /**
+     * Replaces the definitions. Calls already running finish with the previous definitions.
+     * Greater than tiers which are new or lower than in the previous definitions are caught up on by the first trigger
+     * of each owner on their event.
+     */
+    public synchronized void setAchievementDefinition(final AchievementDefinition achievementDefinition) {
+        unlockedEventFactory.setAchievementDefinition(achievementDefinition);
+        eventBus.setAchievementDefinition(achievementDefinition);
+        tierCatchUp = new TierCatchUp(this.achievementDefinition, achievementDefinition);
         this.achievementDefinition = achievementDefinition;
-        achievementUnlockFinder.setAchievementDefinition(achievementDefinition);
     }
 
     public void setInternationalizationBaseName(final String internationalizationBaseName) {
-        final ResourceBundle resourceBundle = ResourceBundle.getBundle(internationalizationBaseName, Locale.ENGLISH);
-        setResourceBundle(resourceBundle);
+        setInternationalization(internationalizationBaseName, Locale.ENGLISH);
+    }
+
+    /**
+     * Loads the bundles of every given locale and precomputes the unlock messages in each of them.
+     *
+     * @param defaultLocale locale of the messages when no locale is requested. Its bundle is always loaded.
+     * @param locales       further locales the messages are requested in.
+     */
+    public synchronized void setInternationalization(final String internationalizationBaseName, final Locale defaultLocale, final Locale... locales) {
+        final Map<Locale, ResourceBundle> resourceBundles = new LinkedHashMap<>();
+        resourceBundles.put(defaultLocale, ResourceBundle.getBundle(internationalizationBaseName, defaultLocale));
+        for (Locale locale : locales) {
+            resourceBundles.computeIfAbsent(locale, key -> ResourceBundle.getBundle(internationalizationBaseName, key));
+        }
+        unlockedEventFactory.setResourceBundles(resourceBundles, defaultLocale);
         this.internationalizationBaseName = internationalizationBaseName;
+        this.resourceBundles = resourceBundles;
+        resourceBundle = resourceBundles.get(defaultLocale);
     }
 
-    public void setResourceBundle(final ResourceBundle resourceBundle) {
+    public synchronized void setResourceBundle(final ResourceBundle resourceBundle) {
         this.resourceBundle = resourceBundle;
+        resourceBundles = Collections.emptyMap();
         unlockedEventFactory.setResourceBundle(resourceBundle);
     }
 
@@ -63,8 +106,11 @@ public class AchievementController {
         return resourceBundle;
     }
 
-    public void setLocale(final Locale locale) {
-        setResourceBundle(ResourceBundle.getBundle(internationalizationBaseName, locale));
+    /**
+     * Changes the default locale of the unlock messages. The locales configured before stay available.
+     */
+    public synchronized void setLocale(final Locale locale) {
+        setInternationalization(internationalizationBaseName, locale, resourceBundles.keySet().toArray(new Locale[resourceBundles.size()]));
     }
 
     public Collection<IAchievement> getAll() {
@@ -72,20 +118,22 @@ public class AchievementController {
     }
 
     public Collection<IAchievement> getAllUnlocked(final String userId) {
-        final Collection<IAchievement> unlocked = new ArrayList<>();
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
         final Collection<IAchievementBean> unlockedEntities = repository.achievement().getAll(userId);
-        unlockedEntities.parallelStream().forEach(entity -> {
+        final Collection<IAchievement> unlocked = new ArrayList<>(unlockedEntities.size());
+        for (IAchievementBean entity : unlockedEntities) {
             final Optional<IAchievement> achievement = achievementDefinition.get(entity.getId());
             if (achievement.isPresent()) {
                 unlocked.add(achievement.get());
             }
-        });
+        }
         return unlocked;
     }
 
     public Collection<IAchievement> getAllByOwner(final String userId) {
-        final Collection<IAchievement> achievementsByOwner = new ArrayList<>();
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
         final Collection<IAchievementBean> achievementEntities = repository.achievement().getAll(userId);
+        final Collection<IAchievement> achievementsByOwner = new ArrayList<>(achievementEntities.size());
         for (IAchievementBean achievementEntity : achievementEntities) {
             final Optional<IAchievement> achievement = achievementDefinition.get(achievementEntity.getId());
             if (achievement.isPresent()) {
@@ -103,73 +151,335 @@ public class AchievementController {
         return achievementDefinition.getAllByEvents();
     }
 
-    public void checkAndUnlock(final String userId) {
+    public Collection<IAchievementUnlockedEvent> checkAndUnlock(final String userId) {
         LOG.debug("Checking achievements to unlock");
-        final Collection<IAchievementUnlockedEvent> unlockableAchievements = achievementUnlockFinder.findAll(userId);
-        unlockableAchievements.forEach(this::unlock);
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
+        final Collection<UnlockCandidate> unlockables = achievementUnlockFinder.findAll(achievementDefinition, userId);
+        return unlock(achievementDefinition, userId, unlockables);
+    }
+
+    public Collection<IAchievementUnlockedEvent> triggerEventWithHighScore(final String userId, final String event, final Long score) {
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
+        return triggerEventWithHighScore(achievementDefinition, userId, resolveEvent(achievementDefinition, event), score);
+    }
+
+    /**
+     * Sets the score of the event given by its dense index if it is greater than the stored one and unlocks the matching achievements.
+     *
+     * @return events of the newly unlocked achievement levels.
+     */
+    public Collection<IAchievementUnlockedEvent> triggerEventWithHighScore(final String userId, final int event, final Long score) {
+        return triggerEventWithHighScore(achievementDefinition, userId, event, score);
     }
 
-    public void triggerEventWithHighScore(final String userId, final String event, final Long score) {
-        if (isNewHighScore(userId, event, score)) {
+    private Collection<IAchievementUnlockedEvent> triggerEventWithHighScore(final AchievementDefinition achievementDefinition, final String userId,
+                                                                            final int event, final Long score) {
+        final String eventName = achievementDefinition.getEvent(event);
+        final ScoreChange scoreChange = repository.event().setScoreIfGreater(userId, eventName, score);
+        if (scoreChange.isChanged()) {
             LOG.debug("New highscore submitted!");
-            triggerEvent(userId, event, score);
+            return onScoreChanged(achievementDefinition, userId, event, scoreChange);
         }
+        return Collections.emptyList();
     }
 
-    private boolean isNewHighScore(final String userId, final String event, final Long score) {
-        return repository.event().scoreOf(userId, event) <= score;
+    public Collection<IAchievementUnlockedEvent> triggerEvent(final String userId, final String event, final Long score) {
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
+        return triggerEvent(achievementDefinition, userId, resolveEvent(achievementDefinition, event), score);
     }
 
-    public void triggerEvent(final String userId, final String event, final Long score) {
-        if (isDifferentValueAsStored(userId, event, score)) {
-            LOG.debug("Achievement event named {} is triggered by owners {} with score: {}", event, score);
-            publishUpdatedScore(userId, event, score);
-            final Collection<IAchievementUnlockedEvent> unlockables = achievementUnlockFinder.findUnlockables(userId, event, score);
-            unlockables.forEach(this::unlock);
+    /**
+     * Sets the score of the event given by its dense index in the achievement definition and unlocks the matching achievements.
+     *
+     * @return events of the newly unlocked achievement levels.
+     */
+    public Collection<IAchievementUnlockedEvent> triggerEvent(final String userId, final int event, final Long score) {
+        return triggerEvent(achievementDefinition, userId, event, score);
+    }
+
+    private Collection<IAchievementUnlockedEvent> triggerEvent(final AchievementDefinition achievementDefinition, final String userId, final int event,
+                                                               final Long score) {
+        final String eventName = achievementDefinition.getEvent(event);
+        final ScoreChange scoreChange = repository.event().setScoreIfDifferent(userId, eventName, score);
+        if (scoreChange.isChanged()) {
+            LOG.debug("Achievement event named {} is triggered by owners {} with score: {}", eventName, userId, score);
+            return onScoreChanged(achievementDefinition, userId, event, scoreChange);
         }
+        return Collections.emptyList();
     }
 
-    private void publishUpdatedScore(final String userId, final String event, final Long score) {
-        final Long currentValue = repository.event().setScore(userId, event, score);
-        final ScoreUpdatedEvent updatedEvent = new ScoreUpdatedEvent(event, currentValue);
-        eventBus.publishScoreChanged(updatedEvent);
+    private Collection<IAchievementUnlockedEvent> onScoreChanged(final AchievementDefinition achievementDefinition, final String userId, final int event,
+                                                                 final ScoreChange scoreChange) {
+        eventBus.publishScoreChanged(userId, achievementDefinition.getEvent(event), scoreChange.getNewScore());
+        final Collection<UnlockCandidate> unlockables = findUnlockables(achievementDefinition, userId, event, scoreChange.getOldScore(),
+                scoreChange.getNewScore(), false);
+        return unlock(achievementDefinition, userId, unlockables);
     }
 
-    private boolean isDifferentValueAsStored(final String userId, final String event, final Long score) {
-        final Long currentValue = repository.event().scoreOf(userId, event);
-        return !currentValue.equals(score);
+    public Collection<IAchievementUnlockedEvent> triggerEvent(final String userId, final String event) {
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
+        return triggerEvent(achievementDefinition, userId, resolveEvent(achievementDefinition, event));
     }
 
-    public void triggerEvent(final String userId, final String event) {
-        LOG.info("Achievement event triggered: {}", event);
-        publishIncremented(userId, event);
-        final Collection<IAchievementUnlockedEvent> unlockables = achievementUnlockFinder.findUnlockables(userId, event);
-        unlockables.forEach(this::unlock);
+    /**
+     * Increments the counter of the event given by its dense index in the achievement definition and unlocks the matching achievements.
+     *
+     * @return events of the newly unlocked achievement levels.
+     */
+    public Collection<IAchievementUnlockedEvent> triggerEvent(final String userId, final int event) {
+        return triggerEvent(achievementDefinition, userId, event);
+    }
+
+    private Collection<IAchievementUnlockedEvent> triggerEvent(final AchievementDefinition achievementDefinition, final String userId, final int event) {
+        final String eventName = achievementDefinition.getEvent(event);
+        LOG.debug("Achievement event triggered: {}", eventName);
+        final Long currentValue = publishIncremented(userId, eventName);
+        final Collection<UnlockCandidate> unlockables = findUnlockables(achievementDefinition, userId, event, currentValue - 1, currentValue, false);
+        return unlock(achievementDefinition, userId, unlockables);
+    }
+
+    /**
+     * Finds the achievements unlocked by the score change. Only the crossed score thresholds are evaluated, except on
+     * the first trigger of the owner on an event with caught up tiers, which also adds every tier reached by the new score.
+     */
+    private Collection<UnlockCandidate> findUnlockables(final AchievementDefinition achievementDefinition, final String userId, final int event,
+                                                        final Long oldScore, final Long newScore, final boolean counted) {
+        final Collection<UnlockCandidate> unlockables = achievementUnlockFinder.findUnlockables(achievementDefinition, userId, event, oldScore, newScore, counted);
+        if (!tierCatchUp.claim(achievementDefinition, userId, event)) {
+            return unlockables;
+        }
+        LOG.debug("Catching up on the score tiers of event {} for owner {}", achievementDefinition.getEvent(event), userId);
+        final Collection<UnlockCandidate> caughtUp = new ArrayList<>(unlockables);
+        caughtUp.addAll(achievementUnlockFinder.findReachedScoreUnlockables(achievementDefinition, userId, event, newScore));
+        return caughtUp;
     }
 
     private Long publishIncremented(final String userId, final String event) {
         final Long currentValue = repository.event().increment(userId, event);
-        eventBus.publishScoreChanged(new ScoreUpdatedEvent(event, currentValue));
+        eventBus.publishScoreChanged(userId, event, currentValue);
         return currentValue;
     }
 
+    /**
+     * Applies a batch of trigger requests of any number of owners. Requests are grouped by owner and event, the
+     * scores of each owner are updated with one batched repository call and the unlocks of each owner are saved
+     * together. Every request is validated before the first repository call.
+     *
+     * @return events of the newly unlocked achievement levels of every owner.
+     */
+    public Collection<IAchievementUnlockedEvent> triggerEvents(final Collection<TriggerRequest> requests) {
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
+        final Map<String, Map<Integer, EventTriggers>> triggersByOwner = new LinkedHashMap<>();
+        for (TriggerRequest request : requests) {
+            final int event = resolveEvent(achievementDefinition, request.getEvent());
+            triggersByOwner.computeIfAbsent(request.getUserId(), userId -> new LinkedHashMap<>())
+                    .computeIfAbsent(event, key -> new EventTriggers())
+                    .add(request.getScore());
+        }
+        final Collection<IAchievementUnlockedEvent> unlocked = new ArrayList<>();
+        triggersByOwner.forEach((userId, eventTriggers) -> unlocked.addAll(triggerEvents(achievementDefinition, userId, eventTriggers)));
+        return unlocked;
+    }
+
+    /**
+     * The net update of every event is applied with one batched repository call, atomically per event. The segments
+     * of each event are then evaluated one after the other from the stored score before the update, as if they had
+     * been applied on their own.
+     */
+    private Collection<IAchievementUnlockedEvent> triggerEvents(final AchievementDefinition achievementDefinition, final String userId,
+                                                                final Map<Integer, EventTriggers> triggersByEvent) {
+        final Map<String, ScoreUpdate> updates = new LinkedHashMap<>();
+        triggersByEvent.forEach((event, triggers) -> updates.put(achievementDefinition.getEvent(event), triggers.toScoreUpdate()));
+        final Map<String, ScoreChange> scoreChanges = repository.event().updateScores(userId, updates);
+        final Collection<UnlockCandidate> unlockables = new ArrayList<>();
+        triggersByEvent.forEach((event, triggers) -> {
+            final String eventName = achievementDefinition.getEvent(event);
+            Long score = scoreChanges.get(eventName).getOldScore();
+            boolean changed = false;
+            for (Segment segment : triggers.segments) {
+                if (segment.score != null && !segment.score.equals(score)) {
+                    unlockables.addAll(findUnlockables(achievementDefinition, userId, event, score, segment.score, false));
+                    score = segment.score;
+                    changed = true;
+                }
+                if (segment.increments > 0) {
+                    unlockables.addAll(findUnlockables(achievementDefinition, userId, event, score, score + segment.increments, true));
+                    score += segment.increments;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                eventBus.publishScoreChanged(userId, eventName, score);
+            }
+        });
+        return unlock(achievementDefinition, userId, unlockables);
+    }
+
+    /**
+     * Requests of one owner for one event in submission order. Each score request opens a new segment and the
+     * increments following it are merged into that segment.
+     */
+    private static final class EventTriggers {
+
+        private final List<Segment> segments = new ArrayList<>();
+
+        private void add(final Long score) {
+            if (score != null || segments.isEmpty()) {
+                segments.add(new Segment(score));
+            }
+            if (score == null) {
+                segments.get(segments.size() - 1).increments++;
+            }
+        }
+
+        /**
+         * @return the net update of the event: the last requested score with the increments following it, or the sum
+         * of the increments if no score is requested.
+         */
+        private ScoreUpdate toScoreUpdate() {
+            final Segment last = segments.get(segments.size() - 1);
+            if (last.score != null) {
+                return new ScoreUpdate(last.score, last.increments);
+            }
+            long increments = 0;
+            for (Segment segment : segments) {
+                increments += segment.increments;
+            }
+            return new ScoreUpdate(null, increments);
+        }
+    }
+
+    private static final class Segment {
+
+        private final Long score;
+        private long increments;
+
+        private Segment(final Long score) {
+            this.score = score;
+        }
+    }
+
+    /**
+     * Owners who have caught up on the greater than tiers which the current definitions added or lowered compared to
+     * the previous ones. A score stored before such a tier existed never crosses it again, so the first trigger of each
+     * owner on an affected event evaluates every tier reached by the new score once. The owners are kept until the
+     * next definition swap, and only for the affected events.
+     */
+    private static final class TierCatchUp {
+
+        private final AchievementDefinition achievementDefinition;
+        private final List<Set<String>> caughtUpOwners;
+
+        private TierCatchUp(final AchievementDefinition previous, final AchievementDefinition current) {
+            achievementDefinition = current;
+            caughtUpOwners = new ArrayList<>(current.getEventCount());
+            for (int event = 0; event < current.getEventCount(); event++) {
+                caughtUpOwners.add(hasNewTiers(previous, current.getEvent(event), current.getAchievementsSubscribedFor(current.getEvent(event)))
+                        ? ConcurrentHashMap.newKeySet() : null);
+            }
+        }
+
+        private static boolean hasNewTiers(final AchievementDefinition previous, final String event, final Collection<IAchievement> subscribers) {
+            for (IAchievement subscriber : subscribers) {
+                if (subscriber.getType() == AchievementType.SCORE) {
+                    final Optional<IAchievement> previousAchievement = previous.get(AchievementType.SCORE, subscriber.getId());
+                    final boolean subscribed = previousAchievement.isPresent() && previousAchievement.get().getSubscriptions().contains(event);
+                    if (hasNewTiers(subscribed ? (ScoreAchievementBean) previousAchievement.get() : null, (ScoreAchievementBean) subscriber)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasNewTiers(final ScoreAchievementBean previous, final ScoreAchievementBean current) {
+            final List<ScoreTrigger> triggers = current.getTrigger();
+            for (int i = 0; i < triggers.size() && i < current.getMaxLevel(); i++) {
+                final ScoreTrigger trigger = triggers.get(i);
+                if (trigger.getOperation() == ScoreTrigger.Operation.GREATER_THAN) {
+                    if (previous == null || i >= previous.getTrigger().size() || i >= previous.getMaxLevel()) {
+                        return true;
+                    }
+                    final ScoreTrigger previousTrigger = previous.getTrigger().get(i);
+                    if (previousTrigger.getOperation() != ScoreTrigger.Operation.GREATER_THAN || previousTrigger.getTrigger() > trigger.getTrigger()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return {@code true} if the owner has to catch up on the event, which is only returned once per owner and event.
+         */
+        private boolean claim(final AchievementDefinition achievementDefinition, final String userId, final int event) {
+            if (achievementDefinition != this.achievementDefinition) {
+                return false;
+            }
+            final Set<String> owners = caughtUpOwners.get(event);
+            return owners != null && owners.add(userId);
+        }
+    }
+
+    private static int resolveEvent(final AchievementDefinition achievementDefinition, final String event) {
+        final int eventIndex = achievementDefinition.getEventIndex(event);
+        if (eventIndex < 0) {
+            throw new EventNotFoundException(event);
+        }
+        return eventIndex;
+    }
+
     public void unlock(final String userId, final String achievementId, final String triggerValue) {
-        final Optional<IAchievement> matchingAchievement = achievementDefinition.get(achievementId);
-        if (matchingAchievement.isPresent()) {
-            final AchievementUnlockedEvent achievementUnlockedEvent = unlockedEventFactory.createEvent(userId, matchingAchievement.get(), triggerValue);
-            unlock(achievementUnlockedEvent);
+        final AchievementDefinition achievementDefinition = this.achievementDefinition;
+        final int achievementIndex = achievementDefinition.getAchievementIndex(achievementId);
+        if (achievementIndex >= 0) {
+            unlock(achievementDefinition, userId, achievementIndex, triggerValue);
         }
     }
 
-    private void unlock(final IAchievementUnlockedEvent achievement) {
-        if (!isLevelUnlocked(achievement.getOwner(), achievement.getId(), achievement.getLevel())) {
-            repository.achievement().unlock(achievement.getOwner(), achievement.getId(), achievement.getLevel());
-            eventBus.publishUnlocked(achievement);
+    public Collection<IAchievementUnlockedEvent> unlock(final String userId, final int achievementIndex, final String triggerValue) {
+        return unlock(achievementDefinition, userId, achievementIndex, triggerValue);
+    }
+
+    private Collection<IAchievementUnlockedEvent> unlock(final AchievementDefinition achievementDefinition, final String userId, final int achievementIndex,
+                                                         final String triggerValue) {
+        return unlock(achievementDefinition, userId, Collections.singletonList(UnlockCandidate.of(achievementIndex, triggerValue)));
+    }
+
+    /**
+     * Unlocks every level of the given candidates which is not unlocked yet with one conditional batched write.
+     * Events are only created and published for the levels actually unlocked by the call.
+     *
+     * @param achievementDefinition definition snapshot the candidates were found in.
+     * @param unlockables           candidate levels of the given owner.
+     * @return events of the newly unlocked levels.
+     */
+    private Collection<IAchievementUnlockedEvent> unlock(final AchievementDefinition achievementDefinition, final String userId,
+                                                         final Collection<UnlockCandidate> unlockables) {
+        if (unlockables.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<String, Set<Integer>> candidateLevels = new LinkedHashMap<>();
+        unlockables.forEach(unlockable -> candidateLevels.computeIfAbsent(idOf(achievementDefinition, unlockable), id -> new TreeSet<>()).add(unlockable.getLevel()));
+        final Map<String, Set<Integer>> newLevels = repository.achievement().unlockIfAbsent(userId, candidateLevels);
+        if (newLevels.isEmpty()) {
+            return Collections.emptyList();
         }
+        final Map<String, Set<Integer>> publishedLevels = new HashMap<>();
+        final Collection<IAchievementUnlockedEvent> newlyUnlocked = new ArrayList<>(unlockables.size());
+        for (UnlockCandidate unlockable : unlockables) {
+            final String id = idOf(achievementDefinition, unlockable);
+            final boolean unlocked = newLevels.getOrDefault(id, Collections.emptySet()).contains(unlockable.getLevel());
+            if (unlocked && publishedLevels.computeIfAbsent(id, key -> new HashSet<>()).add(unlockable.getLevel())) {
+                newlyUnlocked.add(unlockedEventFactory.createEvent(userId, achievementDefinition, unlockable));
+            }
+        }
+        newlyUnlocked.forEach(eventBus::publishUnlocked);
+        return newlyUnlocked;
     }
 
-    private Boolean isLevelUnlocked(final String userId, final String id, final Integer level) {
-        return repository.achievement().isUnlocked(userId, id, level);
+    private static String idOf(final AchievementDefinition achievementDefinition, final UnlockCandidate unlockable) {
+        return achievementDefinition.getAchievement(unlockable.getAchievementIndex()).getId();
     }
 
     public Boolean isUnlocked(final String userId, final String achievementId) {
@@ -180,10 +490,26 @@ public class AchievementController {
         return repository.achievement().isUnlocked(userId, achievementId, level);
     }
 
+    public Boolean isUnlocked(final String userId, final int achievementIndex, final Integer level) {
+        return repository.achievement().isUnlocked(userId, achievementDefinition.getAchievement(achievementIndex).getId(), level);
+    }
+
     public Long getCurrentScore(final String userId, final String achievementId) {
         return repository.event().scoreOf(userId, achievementId);
     }
 
+    public Long getCurrentScore(final String userId, final int event) {
+        return repository.event().scoreOf(userId, achievementDefinition.getEvent(event));
+    }
+
+    /**
+     * @return the current definition snapshot. Dense event and achievement indexes are only valid for the snapshot
+     * they were resolved from and may change when the definitions are reloaded.
+     */
+    public AchievementDefinition getAchievementDefinition() {
+        return achievementDefinition;
+    }
+
     public void reset(final String userId) {
         repository.event().resetCounters(userId);
         repository.achievement().clearAchievements(userId);
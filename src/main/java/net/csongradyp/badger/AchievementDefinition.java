@@ -1,76 +1,260 @@
 package net.csongradyp.badger;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.IntFunction;
 import net.csongradyp.badger.domain.AchievementType;
 import net.csongradyp.badger.domain.achievement.IAchievement;
 import net.csongradyp.badger.exception.MalformedAchievementDefinition;
+import net.csongradyp.badger.provider.index.CalendarIndex;
+import net.csongradyp.badger.provider.index.ScoreThresholdIndex;
 
+/**
+ * Immutable, compiled catalog of the defined achievements.
+ * Every index and collection view is built once at construction, so lookups neither copy nor allocate.
+ * Events and achievements are also interned to dense {@code int} indexes in declaration order, which the
+ * trigger and unlock hot path uses instead of hashing their names.
+ */
 public class AchievementDefinition {
 
-    private final Map<AchievementType, Map<String, IAchievement>> achievementTypeMap;
+    private static final int[] NO_SUBSCRIBERS = new int[0];
+
+    private final IAchievement[] achievementArray;
+    private final List<IAchievement> achievements;
+    private final Map<String, Integer> achievementIndexes;
+    private final Map<String, Optional<IAchievement>> achievementIdMap;
+    private final String[] events;
+    private final Map<String, Integer> eventIndexes;
+    private final ScoreThresholdIndex[] scoreThresholdIndexes;
+    private final CalendarIndex[] calendarIndexes;
+    private final int[][] unindexedSubscribers;
+    private final Map<AchievementType, Collection<IAchievement>> achievementTypeMap;
     private final Map<String, Set<IAchievement>> achievementEventMap;
-    private final Map<String, Set<IAchievement>> achievementCategoryMap;
+    private final Map<String, Collection<IAchievement>> achievementCategoryMap;
 
     public AchievementDefinition() {
-        achievementTypeMap = new HashMap<>();
-        achievementEventMap = new HashMap<>();
-        achievementCategoryMap = new HashMap<>();
-        setUpTypeMap();
+        this(Collections.emptyList(), Collections.emptyList());
     }
 
-    private void setUpTypeMap() {
-        for (AchievementType type : AchievementType.values()) {
-            achievementTypeMap.put(type, new HashMap<>());
+    public AchievementDefinition(final Collection<String> events, final Collection<IAchievement> achievements) {
+        this(events, achievements, null);
+    }
+
+    /**
+     * Restores a catalog together with its subscription indexes written by {@link #writeIndexesTo(DataOutput)},
+     * so the indexes are read instead of being compiled again.
+     *
+     * @param indexes buffer positioned at the written indexes. The position is moved past them.
+     */
+    public AchievementDefinition(final Collection<String> events, final Collection<IAchievement> achievements, final ByteBuffer indexes) {
+        achievementArray = achievements.toArray(new IAchievement[achievements.size()]);
+        this.achievements = Collections.unmodifiableList(Arrays.asList(achievementArray));
+        achievementIdMap = createIdMap(achievementArray);
+        achievementIndexes = createIndexMap(achievementArray.length, i -> achievementArray[i].getId());
+        achievementTypeMap = createTypeMap(achievementArray);
+        achievementEventMap = createEventMap(events, achievementArray);
+        achievementCategoryMap = createCategoryMap(achievementArray);
+        this.events = achievementEventMap.keySet().toArray(new String[achievementEventMap.size()]);
+        eventIndexes = createIndexMap(this.events.length, i -> this.events[i]);
+        scoreThresholdIndexes = new ScoreThresholdIndex[this.events.length];
+        calendarIndexes = new CalendarIndex[this.events.length];
+        unindexedSubscribers = new int[this.events.length][];
+        if (indexes == null) {
+            compileSubscriptions();
+        } else {
+            readSubscriptions(indexes);
         }
     }
 
-    public void setEvents(final String[] events) {
-        setEvents(Arrays.asList(events));
+    private static Map<String, Integer> createIndexMap(final int size, final IntFunction<String> keys) {
+        final Map<String, Integer> indexMap = new HashMap<>(capacityFor(size));
+        for (int i = 0; i < size; i++) {
+            indexMap.put(keys.apply(i), i);
+        }
+        return indexMap;
     }
 
-    public void setEvents(final Collection<String> events) {
-        events.stream().forEach(event -> achievementEventMap.put(event, new HashSet<>()));
+    private void compileSubscriptions() {
+        for (int event = 0; event < events.length; event++) {
+            final Set<IAchievement> subscribers = achievementEventMap.get(events[event]);
+            final int[] scoreSubscribers = new int[subscribers.size()];
+            final int[] calendarSubscribers = new int[subscribers.size()];
+            final int[] otherSubscribers = new int[subscribers.size()];
+            int scoreCount = 0;
+            int calendarCount = 0;
+            int otherCount = 0;
+            for (IAchievement subscriber : subscribers) {
+                final int achievementIndex = achievementIndexes.get(subscriber.getId());
+                final AchievementType type = subscriber.getType();
+                if (type == AchievementType.SCORE) {
+                    scoreSubscribers[scoreCount++] = achievementIndex;
+                } else if (type == AchievementType.DATE || type == AchievementType.TIME || type == AchievementType.TIME_RANGE) {
+                    calendarSubscribers[calendarCount++] = achievementIndex;
+                } else {
+                    otherSubscribers[otherCount++] = achievementIndex;
+                }
+            }
+            scoreThresholdIndexes[event] = scoreCount == 0 ? ScoreThresholdIndex.empty() : new ScoreThresholdIndex(achievementArray, Arrays.copyOf(scoreSubscribers, scoreCount));
+            calendarIndexes[event] = calendarCount == 0 ? CalendarIndex.empty() : new CalendarIndex(achievementArray, Arrays.copyOf(calendarSubscribers, calendarCount));
+            unindexedSubscribers[event] = otherCount == 0 ? NO_SUBSCRIBERS : Arrays.copyOf(otherSubscribers, otherCount);
+        }
     }
 
-    public void setAchievements(Collection<IAchievement> achievements) {
-        achievements.stream().forEach(this::add);
+    private void readSubscriptions(final ByteBuffer input) {
+        if (input.getInt() != events.length) {
+            throw new MalformedAchievementDefinition("Compiled indexes do not match the declared events");
+        }
+        for (int event = 0; event < events.length; event++) {
+            scoreThresholdIndexes[event] = ScoreThresholdIndex.readFrom(input);
+            calendarIndexes[event] = CalendarIndex.readFrom(input);
+            final int[] subscribers = new int[input.getInt()];
+            for (int i = 0; i < subscribers.length; i++) {
+                subscribers[i] = input.getInt();
+            }
+            unindexedSubscribers[event] = subscribers.length == 0 ? NO_SUBSCRIBERS : subscribers;
+        }
     }
 
-    private void add(final IAchievement achievement) {
-        addToTypeMap(achievement.getType(), achievement);
-        addToCategoryMap(achievement);
-        addToEventMap(achievement);
+    /**
+     * Writes the compiled subscription indexes of every event.
+     */
+    public void writeIndexesTo(final DataOutput output) throws IOException {
+        output.writeInt(events.length);
+        for (int event = 0; event < events.length; event++) {
+            scoreThresholdIndexes[event].writeTo(output);
+            calendarIndexes[event].writeTo(output);
+            output.writeInt(unindexedSubscribers[event].length);
+            for (int achievementIndex : unindexedSubscribers[event]) {
+                output.writeInt(achievementIndex);
+            }
+        }
     }
 
-    private void addToTypeMap(final AchievementType type, final IAchievement achievementBean) {
-        achievementTypeMap.get(type).put(achievementBean.getId(), achievementBean);
+    private static Map<String, Optional<IAchievement>> createIdMap(final IAchievement[] achievements) {
+        final Map<String, Optional<IAchievement>> idMap = new HashMap<>(capacityFor(achievements.length));
+        for (IAchievement achievement : achievements) {
+            if (idMap.put(achievement.getId(), Optional.of(achievement)) != null) {
+                throw new MalformedAchievementDefinition("Duplicate achievement id: " + achievement.getId());
+            }
+        }
+        return idMap;
     }
 
-    private void addToEventMap(final IAchievement achievementBean) {
-        final List<String> eventSubscriptions = achievementBean.getSubscriptions();
-        if (eventSubscriptions != null && !eventSubscriptions.isEmpty()) {
-            eventSubscriptions.forEach(event -> {
-                if(!achievementEventMap.containsKey(event)) {
-                    throw new MalformedAchievementDefinition("Event declaration is missing for event: " + event);
-                }
-                achievementEventMap.get(event).add(achievementBean);
-            });
+    private static Map<AchievementType, Collection<IAchievement>> createTypeMap(final IAchievement[] achievements) {
+        final Map<AchievementType, List<IAchievement>> typeLists = new EnumMap<>(AchievementType.class);
+        for (AchievementType type : AchievementType.values()) {
+            typeLists.put(type, new ArrayList<>());
+        }
+        for (IAchievement achievement : achievements) {
+            typeLists.get(achievement.getType()).add(achievement);
+        }
+        final Map<AchievementType, Collection<IAchievement>> typeMap = new EnumMap<>(AchievementType.class);
+        typeLists.forEach((type, typeAchievements) -> typeMap.put(type, unmodifiableCopy(typeAchievements)));
+        return Collections.unmodifiableMap(typeMap);
+    }
+
+    private static Map<String, Set<IAchievement>> createEventMap(final Collection<String> events, final IAchievement[] achievements) {
+        final Map<String, Set<IAchievement>> eventSets = new LinkedHashMap<>(capacityFor(events.size()));
+        events.forEach(event -> eventSets.put(event, new LinkedHashSet<>()));
+        for (IAchievement achievement : achievements) {
+            final List<String> eventSubscriptions = achievement.getSubscriptions();
+            if (eventSubscriptions != null) {
+                eventSubscriptions.forEach(event -> {
+                    if (!eventSets.containsKey(event)) {
+                        throw new MalformedAchievementDefinition("Event declaration is missing for event: " + event);
+                    }
+                    eventSets.get(event).add(achievement);
+                });
+            }
         }
+        final Map<String, Set<IAchievement>> eventMap = new LinkedHashMap<>(capacityFor(eventSets.size()));
+        eventSets.forEach((event, subscribers) -> eventMap.put(event, Collections.unmodifiableSet(subscribers)));
+        return Collections.unmodifiableMap(eventMap);
     }
 
-    private void addToCategoryMap(final IAchievement achievementBean) {
-        final String category = achievementBean.getCategory();
-        if (achievementCategoryMap.get(category) == null) {
-            achievementCategoryMap.put(category, new HashSet<>());
+    private static Map<String, Collection<IAchievement>> createCategoryMap(final IAchievement[] achievements) {
+        final Map<String, List<IAchievement>> categoryLists = new HashMap<>();
+        for (IAchievement achievement : achievements) {
+            categoryLists.computeIfAbsent(achievement.getCategory(), category -> new ArrayList<>()).add(achievement);
         }
-        achievementCategoryMap.get(category).add(achievementBean);
+        final Map<String, Collection<IAchievement>> categoryMap = new HashMap<>(capacityFor(categoryLists.size()));
+        categoryLists.forEach((category, categoryAchievements) -> categoryMap.put(category, unmodifiableCopy(categoryAchievements)));
+        return Collections.unmodifiableMap(categoryMap);
+    }
+
+    private static Collection<IAchievement> unmodifiableCopy(final List<IAchievement> achievements) {
+        return Collections.unmodifiableList(Arrays.asList(achievements.toArray(new IAchievement[achievements.size()])));
+    }
+
+    private static int capacityFor(final int size) {
+        return size * 4 / 3 + 1;
+    }
+
+    /**
+     * @return dense index of the event or {@code -1} if the event is not declared.
+     */
+    public int getEventIndex(final String event) {
+        final Integer index = eventIndexes.get(event);
+        return index != null ? index : -1;
+    }
+
+    public String getEvent(final int eventIndex) {
+        return events[eventIndex];
+    }
+
+    public int getEventCount() {
+        return events.length;
+    }
+
+    /**
+     * @return dense index of the achievement or {@code -1} if no achievement is defined with the given id.
+     */
+    public int getAchievementIndex(final String id) {
+        final Integer index = achievementIndexes.get(id);
+        return index != null ? index : -1;
+    }
+
+    public IAchievement getAchievement(final int achievementIndex) {
+        return achievementArray[achievementIndex];
+    }
+
+    public int getAchievementCount() {
+        return achievementArray.length;
+    }
+
+    /**
+     * @return merged score thresholds of the score achievements subscribed to the event.
+     */
+    public ScoreThresholdIndex getScoreThresholdIndex(final int eventIndex) {
+        return scoreThresholdIndexes[eventIndex];
+    }
+
+    /**
+     * @return day and minute tables of the date, time and time range achievements subscribed to the event.
+     */
+    public CalendarIndex getCalendarIndex(final int eventIndex) {
+        return calendarIndexes[eventIndex];
+    }
+
+    /**
+     * @return indexes of every achievement subscribed to the event which is neither in the score threshold
+     * nor in the calendar index of the event.
+     */
+    public int[] getUnindexedSubscribers(final int eventIndex) {
+        return unindexedSubscribers[eventIndex];
     }
 
     public Collection<IAchievement> getAchievementsSubscribedFor(final String event) {
@@ -78,13 +262,15 @@ public class AchievementDefinition {
     }
 
     public Collection<IAchievement> getAchievementsForCategory(final String category) {
-        return achievementCategoryMap.get(category);
+        return achievementCategoryMap.getOrDefault(category, Collections.emptyList());
+    }
+
+    public Collection<IAchievement> getAchievementsOfType(final AchievementType type) {
+        return achievementTypeMap.get(type);
     }
 
     public Collection<IAchievement> getAll() {
-        Collection<IAchievement> allAchievements = new HashSet<>();
-        achievementTypeMap.values().forEach(achievementMap -> allAchievements.addAll(achievementMap.values()));
-        return allAchievements;
+        return achievements;
     }
 
     public Map<String, Set<IAchievement>> getAllByEvents() {
@@ -92,16 +278,15 @@ public class AchievementDefinition {
     }
 
     public Optional<IAchievement> get(final AchievementType type, final String id) {
-        Optional<IAchievement> achievement = Optional.empty();
-        final Map<String, IAchievement> achievementBeanMap = achievementTypeMap.get(type);
-        if (achievementBeanMap.containsKey(id)) {
-            achievement = Optional.of(achievementBeanMap.get(id));
+        final Optional<IAchievement> achievement = get(id);
+        if (achievement.isPresent() && achievement.get().getType() == type) {
+            return achievement;
         }
-        return achievement;
+        return Optional.empty();
     }
 
     public Optional<IAchievement> get(final String id) {
-        return getAll().stream().filter(achievement -> achievement.getId().equals(id)).findAny();
+        return achievementIdMap.getOrDefault(id, Optional.empty());
     }
 
 }
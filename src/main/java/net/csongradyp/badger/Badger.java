@@ -7,38 +7,96 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import net.csongradyp.badger.async.ShardedTriggerExecutor;
 import net.csongradyp.badger.domain.achievement.IAchievement;
+import net.csongradyp.badger.event.BatchGrouping;
 import net.csongradyp.badger.event.EventBus;
+import net.csongradyp.badger.event.IAchievementUnlockedBatchHandler;
+import net.csongradyp.badger.event.IAchievementUnlockedEvent;
 import net.csongradyp.badger.event.IAchievementUnlockedHandler;
 import net.csongradyp.badger.event.IScoreUpdateHandler;
+import net.csongradyp.badger.event.OverflowPolicy;
+import net.csongradyp.badger.event.SubscriberMetrics;
+import net.csongradyp.badger.event.SubscriptionFilter;
+import net.csongradyp.badger.event.UnlockedEventBatcher;
 import net.csongradyp.badger.event.wrapper.AchievementUnlockedHandlerWrapper;
 import net.csongradyp.badger.event.wrapper.ScoreUpdateHandlerWrapper;
+import net.csongradyp.badger.parser.DefinitionWatcher;
+import net.csongradyp.badger.parser.binary.BinaryDefinitionParser;
 import net.csongradyp.badger.parser.json.AchievementJsonParser;
 import net.csongradyp.badger.repository.BadgerRepository;
 import net.csongradyp.badger.repository.Repository;
+import net.csongradyp.badger.repository.cache.CachingBadgerRepository;
+import net.csongradyp.badger.repository.memory.InMemoryBadgerRepository;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
-public class Badger {
+public class Badger implements AutoCloseable {
 
     private static final String CONTEXT_XML_PATH = "META-INF/beans.xml";
 
+    private final ConfigurableApplicationContext applicationContext;
     private final AchievementJsonParser parser;
+    private final BinaryDefinitionParser binaryParser;
     private final AchievementController controller;
     private final EventBus eventBus;
     private final Repository repository;
+    private final ShardedTriggerExecutor triggerExecutor;
+    private final CachingBadgerRepository cachingRepository;
+    private File definitionFile;
+    private Supplier<AchievementDefinition> definitionLoader;
+    private DefinitionWatcher definitionWatcher;
 
     /**
      * Default constructor to set up Spring environment.
      */
     private Badger() {
-//        ApplicationContext applicationContext = SpringApplication.run(Badger.class);
-        final ConfigurableApplicationContext applicationContext = new ClassPathXmlApplicationContext(CONTEXT_XML_PATH);
+        this(new ClassPathXmlApplicationContext(CONTEXT_XML_PATH));
         applicationContext.registerShutdownHook();
-        parser = applicationContext.getBean(AchievementJsonParser.class);
-        controller = applicationContext.getBean(AchievementController.class);
-        eventBus = applicationContext.getBean(EventBus.class);
-        repository = applicationContext.getBean(Repository.class);
+    }
+
+    private Badger(final ConfigurableApplicationContext applicationContext) {
+        this(applicationContext, applicationContext.getBean(AchievementJsonParser.class), applicationContext.getBean(BinaryDefinitionParser.class),
+                applicationContext.getBean(AchievementController.class), applicationContext.getBean(EventBus.class),
+                applicationContext.getBean(Repository.class), applicationContext.getBean(ShardedTriggerExecutor.class), null);
+    }
+
+    /**
+     * Engine wired by the {@link BadgerBuilder} without an application context.
+     *
+     * @param cachingRepository cache in front of the repository which is closed by the engine, or {@code null}.
+     */
+    Badger(final ConfigurableApplicationContext applicationContext, final AchievementJsonParser parser, final BinaryDefinitionParser binaryParser,
+           final AchievementController controller, final EventBus eventBus, final Repository repository, final ShardedTriggerExecutor triggerExecutor,
+           final CachingBadgerRepository cachingRepository) {
+        this.applicationContext = applicationContext;
+        this.parser = parser;
+        this.binaryParser = binaryParser;
+        this.controller = controller;
+        this.eventBus = eventBus;
+        this.repository = repository;
+        this.triggerExecutor = triggerExecutor;
+        this.cachingRepository = cachingRepository;
+    }
+
+    /**
+     * Starts the BadgeR achievement engine without i18n support, keeping every state in an {@link InMemoryBadgerRepository}.
+     *
+     * @param definitionFile {@link File} instance which represents the achievement definition file.
+     */
+    public Badger(final File definitionFile) {
+        this(definitionFile, new InMemoryBadgerRepository());
+    }
+
+    /**
+     * Starts the BadgeR achievement engine without i18n support, keeping every state in an {@link InMemoryBadgerRepository}.
+     *
+     * @param definitionFilePath Absolute path of the achievement definition file location.
+     */
+    public Badger(final String definitionFilePath) {
+        this(new File(definitionFilePath));
     }
 
     /**
@@ -48,7 +106,7 @@ public class Badger {
      */
     public Badger(final File definitionFile, final BadgerRepository badgerRepository) {
         this();
-        controller.setAchievementDefinition(parser.parse(definitionFile));
+        loadDefinition(definitionFile, () -> parser.parse(definitionFile));
         repository.setAchievementRepository(badgerRepository);
         repository.setEventRepository(badgerRepository);
     }
@@ -62,6 +120,43 @@ public class Badger {
         this(new File(definitionFilePath), badgerRepository );
     }
 
+    /**
+     * Starts the BadgeR achievement engine without i18n support, restoring the achievement definition from a
+     * precompiled binary snapshot. When the snapshot is missing, corrupted or was compiled from an earlier version of
+     * the definition file, the definition file is parsed and the snapshot is compiled again.
+     *
+     * @param definitionFile {@link File} instance which represents the achievement definition file.
+     * @param snapshotFile   {@link File} instance of the binary snapshot of the definition file.
+     */
+    public Badger(final File definitionFile, final File snapshotFile, final BadgerRepository badgerRepository) {
+        this();
+        loadDefinition(definitionFile, () -> binaryParser.parse(definitionFile, snapshotFile));
+        repository.setAchievementRepository(badgerRepository);
+        repository.setEventRepository(badgerRepository);
+    }
+
+    /**
+     * Loads the definition file with the given loader. The loader is used again by {@link #enableHotReload()}.
+     */
+    void loadDefinition(final File definitionFile, final Supplier<AchievementDefinition> definitionLoader) {
+        this.definitionFile = definitionFile;
+        this.definitionLoader = definitionLoader;
+        controller.setAchievementDefinition(definitionLoader.get());
+    }
+
+    /**
+     * Watches the achievement definition file and reloads it on a background thread whenever it changes.
+     * The new definitions replace the old ones in one step: triggers are never paused by a reload and triggers already
+     * running finish with the definitions they started with. A definition file which fails to load is logged and the
+     * current definitions are kept.
+     */
+    public synchronized void enableHotReload() {
+        if (definitionWatcher == null) {
+            definitionWatcher = new DefinitionWatcher(definitionFile, definitionLoader, controller::setAchievementDefinition);
+            definitionWatcher.start();
+        }
+    }
+
     /**
      * @param baseName i18n properties file base name for internationalization support.<br/>
      *                 See more at <a href="http://csongradyp.github.io/badgeR/">BadgeR API documentation</a>.
@@ -70,6 +165,19 @@ public class Badger {
         controller.setInternationalizationBaseName(baseName);
     }
 
+    /**
+     * Precomputes the titles and descriptions of the achievements in every given locale, so unlock events can be
+     * rendered for each user in their own locale with {@link IAchievementUnlockedEvent#getTitle(Locale)} and
+     * {@link IAchievementUnlockedEvent#getText(Locale)}.
+     *
+     * @param baseName      i18n properties file base name for internationalization support.
+     * @param defaultLocale locale of {@link IAchievementUnlockedEvent#getTitle()} and {@link IAchievementUnlockedEvent#getText()}.
+     * @param locales       further locales the messages are requested in.
+     */
+    public void setInternationalization(final String baseName, final Locale defaultLocale, final Locale... locales) {
+        controller.setInternationalization(baseName, defaultLocale, locales);
+    }
+
     public void setResourceBundle(final ResourceBundle resourceBundle) {
         controller.setResourceBundle(resourceBundle);
     }
@@ -152,6 +260,61 @@ public class Badger {
         controller.triggerEventWithHighScore(userId, event, highScore);
     }
 
+    /**
+     * Sets up the workers of the asynchronous triggers. Has to be called before the first asynchronous trigger,
+     * otherwise one worker per available processor is started with queues of
+     * {@value ShardedTriggerExecutor#DEFAULT_QUEUE_CAPACITY} triggers.
+     *
+     * @param shardCount    number of workers. Triggers of an owner are always processed by the same worker.
+     * @param queueCapacity maximum number of pending triggers per worker. Submitting to a full queue blocks the caller.
+     */
+    public void setAsyncShards(final int shardCount, final int queueCapacity) {
+        triggerExecutor.configure(shardCount, queueCapacity);
+    }
+
+    /**
+     * Asynchronous version of {@link #triggerEvent(String, String)}. Triggers of the same owner are processed in submission order.
+     *
+     * @param event Previously defined event in the achievement definition file.
+     * @return future of the newly unlocked achievement levels.
+     */
+    public CompletableFuture<Collection<IAchievementUnlockedEvent>> triggerEventAsync(final String userId, final String event) {
+        return triggerExecutor.submit(userId, () -> controller.triggerEvent(userId, event));
+    }
+
+    /**
+     * Asynchronous version of {@link #triggerEvent(String, String, Long)}. Triggers of the same owner are processed in submission order.
+     *
+     * @param event Previously defined event in the achievement definition file.
+     * @param score new value of the event counter.
+     * @return future of the newly unlocked achievement levels.
+     */
+    public CompletableFuture<Collection<IAchievementUnlockedEvent>> triggerEventAsync(final String userId, final String event, final Long score) {
+        return triggerExecutor.submit(userId, () -> controller.triggerEvent(userId, event, score));
+    }
+
+    /**
+     * Asynchronous version of {@link #triggerEventWithHighScore(String, String, Long)}. Triggers of the same owner are processed in submission order.
+     *
+     * @param event     Previously defined event in the achievement definition file.
+     * @param highScore new value of the event counter. New value will be only applied if its greater than the stored one.
+     * @return future of the newly unlocked achievement levels.
+     */
+    public CompletableFuture<Collection<IAchievementUnlockedEvent>> triggerEventWithHighScoreAsync(final String userId, final String event, final Long highScore) {
+        return triggerExecutor.submit(userId, () -> controller.triggerEventWithHighScore(userId, event, highScore));
+    }
+
+    /**
+     * Triggers a batch of events of any number of owners. Repeated increments of the same event are merged and the
+     * unlocks of each owner are evaluated and saved together.
+     *
+     * @param requests event triggers in submission order.
+     * @return events of the newly unlocked achievement levels.
+     */
+    public Collection<IAchievementUnlockedEvent> triggerEvents(final Collection<TriggerRequest> requests) {
+        return controller.triggerEvents(requests);
+    }
+
     /**
      * Returns the current value of the event counter.
      *
@@ -171,6 +334,124 @@ public class Badger {
         eventBus.subscribeOnUnlock(new AchievementUnlockedHandlerWrapper(achievementUnlockedHandler));
     }
 
+    /**
+     * Subscribe a handler to receive achievement unlocked events on its own delivery thread, so a slow handler never
+     * delays the triggers.
+     *
+     * @param achievementUnlockedHandler {@link IAchievementUnlockedHandler} implementation to be register.
+     * @param queueCapacity              maximum number of events waiting for the handler.
+     * @param overflowPolicy             behaviour when the queue of the handler is full.
+     * @return queue metrics of the handler.
+     */
+    public SubscriberMetrics subscribeOnUnlock(final IAchievementUnlockedHandler achievementUnlockedHandler, final int queueCapacity,
+                                               final OverflowPolicy overflowPolicy) {
+        return subscribeOnUnlock(achievementUnlockedHandler, SubscriptionFilter.all(), queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Subscribe a handler to receive the achievement unlocked events matching the filter.
+     *
+     * @param achievementUnlockedHandler {@link IAchievementUnlockedHandler} implementation to be register.
+     * @param filter                     owner, event name, achievement id and category of the events to receive.
+     */
+    public void subscribeOnUnlock(final IAchievementUnlockedHandler achievementUnlockedHandler, final SubscriptionFilter filter) {
+        eventBus.subscribeOnUnlock(new AchievementUnlockedHandlerWrapper(achievementUnlockedHandler, filter));
+    }
+
+    /**
+     * Subscribe a handler to receive the achievement unlocked events matching the filter on its own delivery thread.
+     *
+     * @param achievementUnlockedHandler {@link IAchievementUnlockedHandler} implementation to be register.
+     * @param filter                     owner, event name, achievement id and category of the events to receive.
+     * @param queueCapacity              maximum number of events waiting for the handler.
+     * @param overflowPolicy             behaviour when the queue of the handler is full.
+     * @return queue metrics of the handler.
+     */
+    public SubscriberMetrics subscribeOnUnlock(final IAchievementUnlockedHandler achievementUnlockedHandler, final SubscriptionFilter filter,
+                                               final int queueCapacity, final OverflowPolicy overflowPolicy) {
+        final AchievementUnlockedHandlerWrapper wrapper = new AchievementUnlockedHandlerWrapper(achievementUnlockedHandler, filter, queueCapacity, overflowPolicy);
+        eventBus.subscribeOnUnlock(wrapper);
+        return wrapper.getMetrics().get();
+    }
+
+    /**
+     * Subscribe a handler to receive achievement unlocked events in batches on its own delivery thread.
+     *
+     * @param batchHandler {@link IAchievementUnlockedBatchHandler} implementation to be register.
+     * @param grouping     grouping of the events into batches.
+     * @param maxBatchSize maximum number of events in a batch.
+     * @param lingerMillis maximum time in milliseconds an event waits for its batch to fill up.
+     * @return metrics of the queue of batches waiting for the handler.
+     */
+    public SubscriberMetrics subscribeOnUnlockBatches(final IAchievementUnlockedBatchHandler batchHandler, final BatchGrouping grouping,
+                                                      final int maxBatchSize, final long lingerMillis) {
+        return subscribeOnUnlockBatches(batchHandler, SubscriptionFilter.all(), grouping, maxBatchSize, lingerMillis);
+    }
+
+    /**
+     * Subscribe a handler to receive the achievement unlocked events matching the filter in batches on its own delivery
+     * thread.
+     *
+     * @param batchHandler {@link IAchievementUnlockedBatchHandler} implementation to be register.
+     * @param filter       owner, event name, achievement id and category of the events to receive.
+     * @param grouping     grouping of the events into batches.
+     * @param maxBatchSize maximum number of events in a batch.
+     * @param lingerMillis maximum time in milliseconds an event waits for its batch to fill up.
+     * @return metrics of the queue of batches waiting for the handler.
+     */
+    public SubscriberMetrics subscribeOnUnlockBatches(final IAchievementUnlockedBatchHandler batchHandler, final SubscriptionFilter filter,
+                                                      final BatchGrouping grouping, final int maxBatchSize, final long lingerMillis) {
+        return subscribeOnUnlockBatches(batchHandler, filter, grouping, maxBatchSize, lingerMillis, UnlockedEventBatcher.DEFAULT_QUEUE_CAPACITY,
+                OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Subscribe a handler to receive achievement unlocked events in batches on its own delivery thread.
+     *
+     * @param batchHandler   {@link IAchievementUnlockedBatchHandler} implementation to be register.
+     * @param grouping       grouping of the events into batches.
+     * @param maxBatchSize   maximum number of events in a batch.
+     * @param lingerMillis   maximum time in milliseconds an event waits for its batch to fill up.
+     * @param queueCapacity  maximum number of batches waiting for the handler.
+     * @param overflowPolicy behaviour when the queue of batches is full. Batches can not be coalesced.
+     * @return metrics of the queue of batches waiting for the handler.
+     */
+    public SubscriberMetrics subscribeOnUnlockBatches(final IAchievementUnlockedBatchHandler batchHandler, final BatchGrouping grouping,
+                                                      final int maxBatchSize, final long lingerMillis, final int queueCapacity,
+                                                      final OverflowPolicy overflowPolicy) {
+        return subscribeOnUnlockBatches(batchHandler, SubscriptionFilter.all(), grouping, maxBatchSize, lingerMillis, queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Subscribe a handler to receive the achievement unlocked events matching the filter in batches on its own delivery
+     * thread.
+     *
+     * @param batchHandler   {@link IAchievementUnlockedBatchHandler} implementation to be register.
+     * @param filter         owner, event name, achievement id and category of the events to receive.
+     * @param grouping       grouping of the events into batches.
+     * @param maxBatchSize   maximum number of events in a batch.
+     * @param lingerMillis   maximum time in milliseconds an event waits for its batch to fill up.
+     * @param queueCapacity  maximum number of batches waiting for the handler.
+     * @param overflowPolicy behaviour when the queue of batches is full. Batches can not be coalesced.
+     * @return metrics of the queue of batches waiting for the handler.
+     */
+    public SubscriberMetrics subscribeOnUnlockBatches(final IAchievementUnlockedBatchHandler batchHandler, final SubscriptionFilter filter,
+                                                      final BatchGrouping grouping, final int maxBatchSize, final long lingerMillis,
+                                                      final int queueCapacity, final OverflowPolicy overflowPolicy) {
+        final UnlockedEventBatcher batcher = new UnlockedEventBatcher(batchHandler, grouping, maxBatchSize, lingerMillis, queueCapacity, overflowPolicy);
+        eventBus.subscribeOnUnlock(new AchievementUnlockedHandlerWrapper(batcher, filter));
+        return batcher.getMetrics();
+    }
+
+    /**
+     * Unsubscribe registered unlocked event batch handler. Pending batches are still delivered.
+     *
+     * @param batchHandler previously registered {@link IAchievementUnlockedBatchHandler} implementation.
+     */
+    public void unSubscribeOnUnlockBatches(final IAchievementUnlockedBatchHandler batchHandler) {
+        eventBus.unSubscribeOnUnlockBatches(batchHandler);
+    }
+
     /**
      * Unsubscribe registered unlocked event handler.
      *
@@ -189,6 +470,57 @@ public class Badger {
         eventBus.subscribeOnScoreChanged(new ScoreUpdateHandlerWrapper(achievementUpdateHandler));
     }
 
+    /**
+     * Subscribe a handler to receive event counter or score update events on its own delivery thread, so a slow
+     * handler never delays the triggers.
+     *
+     * @param achievementUpdateHandler {@link IScoreUpdateHandler} implementation to be register.
+     * @param queueCapacity            maximum number of events waiting for the handler.
+     * @param overflowPolicy           behaviour when the queue of the handler is full.
+     * @return queue metrics of the handler.
+     */
+    public SubscriberMetrics subscribeOnScoreChanged(final IScoreUpdateHandler achievementUpdateHandler, final int queueCapacity,
+                                                     final OverflowPolicy overflowPolicy) {
+        return subscribeOnScoreChanged(achievementUpdateHandler, SubscriptionFilter.all(), queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Subscribe a handler to receive the event counter or score update events matching the filter.
+     *
+     * @param achievementUpdateHandler {@link IScoreUpdateHandler} implementation to be register.
+     * @param filter                   owner and event name of the updates to receive.
+     */
+    public void subscribeOnScoreChanged(final IScoreUpdateHandler achievementUpdateHandler, final SubscriptionFilter filter) {
+        eventBus.subscribeOnScoreChanged(new ScoreUpdateHandlerWrapper(achievementUpdateHandler, filter));
+    }
+
+    /**
+     * Subscribe a handler to receive the event counter or score update events matching the filter on its own delivery
+     * thread.
+     *
+     * @param achievementUpdateHandler {@link IScoreUpdateHandler} implementation to be register.
+     * @param filter                   owner and event name of the updates to receive.
+     * @param queueCapacity            maximum number of events waiting for the handler.
+     * @param overflowPolicy           behaviour when the queue of the handler is full.
+     * @return queue metrics of the handler.
+     */
+    public SubscriberMetrics subscribeOnScoreChanged(final IScoreUpdateHandler achievementUpdateHandler, final SubscriptionFilter filter,
+                                                     final int queueCapacity, final OverflowPolicy overflowPolicy) {
+        final ScoreUpdateHandlerWrapper wrapper = new ScoreUpdateHandlerWrapper(achievementUpdateHandler, filter, queueCapacity, overflowPolicy);
+        eventBus.subscribeOnScoreChanged(wrapper);
+        return wrapper.getMetrics().get();
+    }
+
+    /**
+     * Conflates the score update events of high frequency counters: within each window the score handlers only receive
+     * the latest score of every owner and event which was updated, on the thread of the conflation stage.
+     *
+     * @param windowMillis length of the conflation window in milliseconds, {@code 0} publishes every update immediately.
+     */
+    public void setScoreConflationWindow(final long windowMillis) {
+        eventBus.setScoreConflationWindow(windowMillis);
+    }
+
     /**
      * Unsubscribe registered score update event handler.
      *
@@ -209,4 +541,25 @@ public class Badger {
     public AchievementController getController() {
         return controller;
     }
+
+    /**
+     * Stops watching the definition file, the asynchronous trigger workers and subscribers and, for engines started with
+     * the annotation support, the Spring context. The repository cache configured by the {@link BadgerBuilder} is
+     * flushed once the queued triggers are processed.
+     */
+    @Override
+    public synchronized void close() {
+        if (definitionWatcher != null) {
+            definitionWatcher.close();
+        }
+        if (applicationContext != null) {
+            applicationContext.close();
+        } else {
+            triggerExecutor.shutdown();
+            if (cachingRepository != null) {
+                cachingRepository.close();
+            }
+            eventBus.shutdown();
+        }
+    }
 }
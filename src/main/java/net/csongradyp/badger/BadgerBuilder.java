@@ -0,0 +1,197 @@
+package net.csongradyp.badger;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import net.csongradyp.badger.async.ShardedTriggerExecutor;
+import net.csongradyp.badger.event.EventBus;
+import net.csongradyp.badger.factory.UnlockedEventFactory;
+import net.csongradyp.badger.parser.RelationParser;
+import net.csongradyp.badger.parser.binary.BinaryDefinitionParser;
+import net.csongradyp.badger.parser.json.AchievementJsonParser;
+import net.csongradyp.badger.parser.trigger.DateTriggerParser;
+import net.csongradyp.badger.parser.trigger.ScoreTriggerParser;
+import net.csongradyp.badger.parser.trigger.TimeTriggerParser;
+import net.csongradyp.badger.parser.trigger.TriggerParser;
+import net.csongradyp.badger.provider.AchievementUnlockProviderFacade;
+import net.csongradyp.badger.provider.date.DateProvider;
+import net.csongradyp.badger.provider.unlock.CompositeUnlockedProvider;
+import net.csongradyp.badger.provider.unlock.DateUnlockedProvider;
+import net.csongradyp.badger.provider.unlock.ScoreRangeUnlockedProvider;
+import net.csongradyp.badger.provider.unlock.ScoreUnlockedProvider;
+import net.csongradyp.badger.provider.unlock.TimeRangeUnlockedProvider;
+import net.csongradyp.badger.provider.unlock.TimeUnlockedProvider;
+import net.csongradyp.badger.repository.BadgerRepository;
+import net.csongradyp.badger.repository.Repository;
+import net.csongradyp.badger.repository.cache.CachingBadgerRepository;
+import net.csongradyp.badger.repository.memory.InMemoryBadgerRepository;
+
+/**
+ * Wires a {@link Badger} engine in plain code, without starting a Spring application context.
+ * Engines built this way are cheaper to start and hold no shared context, so many of them can live in one JVM.
+ * <p>
+ * Annotation driven triggers ({@link net.csongradyp.badger.annotations.EventTrigger} and the other annotations of the
+ * {@code annotations} package) are woven by aspects which get the engine from the Spring context, so they only work
+ * with engines started by the {@link Badger} constructors.
+ */
+public class BadgerBuilder {
+
+    private File definitionFile;
+    private File snapshotFile;
+    private BadgerRepository badgerRepository;
+    private boolean cached;
+    private int cacheMaxUsers = CachingBadgerRepository.DEFAULT_MAX_USERS;
+    private long cacheIdleTimeout = CachingBadgerRepository.DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private long cacheFlushInterval = CachingBadgerRepository.DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private TimeUnit cacheUnit = TimeUnit.MILLISECONDS;
+    private boolean hotReload;
+    private long scoreConflationWindow;
+
+    /**
+     * @param definitionFile {@link File} instance which represents the achievement definition file.
+     */
+    public BadgerBuilder definitionFile(final File definitionFile) {
+        this.definitionFile = definitionFile;
+        return this;
+    }
+
+    /**
+     * Optional binary snapshot of the definition file. See {@link Badger#Badger(File, File, BadgerRepository)}.
+     *
+     * @param snapshotFile {@link File} instance of the binary snapshot of the definition file.
+     */
+    public BadgerBuilder snapshotFile(final File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        return this;
+    }
+
+    /**
+     * @param badgerRepository storage of the unlocked achievements and event counters.
+     *                         Every state is kept in an {@link InMemoryBadgerRepository} by default.
+     */
+    public BadgerBuilder repository(final BadgerRepository badgerRepository) {
+        this.badgerRepository = badgerRepository;
+        return this;
+    }
+
+    /**
+     * @param cached {@code true} to keep the state of the active owners in a {@link CachingBadgerRepository} in front of
+     *               the repository, with the default limits. The cache is flushed by {@link Badger#close()}.
+     */
+    public BadgerBuilder cache(final boolean cached) {
+        this.cached = cached;
+        return this;
+    }
+
+    /**
+     * Keeps the state of the active owners in a {@link CachingBadgerRepository} in front of the repository.
+     * The cache is flushed by {@link Badger#close()}.
+     *
+     * @param maxUsers      maximum number of cached owners.
+     * @param idleTimeout   time after an owner is evicted when its state is not accessed.
+     * @param flushInterval time between write-behind flushes of the counter updates.
+     * @param unit          unit of the idle timeout and the flush interval.
+     */
+    public BadgerBuilder cache(final int maxUsers, final long idleTimeout, final long flushInterval, final TimeUnit unit) {
+        cached = true;
+        cacheMaxUsers = maxUsers;
+        cacheIdleTimeout = idleTimeout;
+        cacheFlushInterval = flushInterval;
+        cacheUnit = unit;
+        return this;
+    }
+
+    /**
+     * @param hotReload {@code true} to reload the definition file whenever it changes. See {@link Badger#enableHotReload()}.
+     */
+    public BadgerBuilder hotReload(final boolean hotReload) {
+        this.hotReload = hotReload;
+        return this;
+    }
+
+    /**
+     * @param windowMillis score update conflation window. See {@link Badger#setScoreConflationWindow(long)}.
+     */
+    public BadgerBuilder scoreConflationWindow(final long windowMillis) {
+        this.scoreConflationWindow = windowMillis;
+        return this;
+    }
+
+    public Badger build() {
+        if (definitionFile == null) {
+            throw new IllegalStateException("Achievement definition file is not set");
+        }
+        final DateProvider dateProvider = new DateProvider();
+        final UnlockedEventFactory unlockedEventFactory = new UnlockedEventFactory();
+        final Repository repository = new Repository();
+        final BadgerRepository backingStorage = badgerRepository != null ? badgerRepository : new InMemoryBadgerRepository();
+        final CachingBadgerRepository cache = cached
+                ? new CachingBadgerRepository(backingStorage, cacheMaxUsers, cacheIdleTimeout, cacheFlushInterval, cacheUnit) : null;
+        final BadgerRepository storage = cache != null ? cache : backingStorage;
+        repository.setAchievementRepository(storage);
+        repository.setEventRepository(storage);
+
+        final AchievementJsonParser parser = createParser(dateProvider);
+        final BinaryDefinitionParser binaryParser = new BinaryDefinitionParser();
+        binaryParser.setJsonParser(parser);
+
+        final EventBus eventBus = new EventBus();
+        eventBus.setScoreConflationWindow(scoreConflationWindow);
+        final AchievementController controller = new AchievementController();
+        controller.setAchievementUnlockFinder(createUnlockProvider(dateProvider, repository));
+        controller.setUnlockedEventFactory(unlockedEventFactory);
+        controller.setEventBus(eventBus);
+        controller.setRepository(repository);
+
+        final Badger badger = new Badger(null, parser, binaryParser, controller, eventBus, repository, new ShardedTriggerExecutor(), cache);
+        final File definition = definitionFile;
+        final File snapshot = snapshotFile;
+        badger.loadDefinition(definition, snapshot != null ? () -> binaryParser.parse(definition, snapshot) : () -> parser.parse(definition));
+        if (hotReload) {
+            badger.enableHotReload();
+        }
+        return badger;
+    }
+
+    private static AchievementJsonParser createParser(final DateProvider dateProvider) {
+        final DateTriggerParser dateTriggerParser = new DateTriggerParser();
+        dateTriggerParser.setDateProvider(dateProvider);
+        final TimeTriggerParser timeTriggerParser = new TimeTriggerParser();
+        timeTriggerParser.setDateProvider(dateProvider);
+        final TriggerParser triggerParser = new TriggerParser();
+        triggerParser.setDateTriggerParser(dateTriggerParser);
+        triggerParser.setTimeTriggerParser(timeTriggerParser);
+        triggerParser.setScoreTriggerParser(new ScoreTriggerParser());
+
+        final AchievementJsonParser parser = new AchievementJsonParser();
+        parser.setDateProvider(dateProvider);
+        parser.setTriggerParsers(triggerParser);
+        parser.setRelationParser(new RelationParser());
+        return parser;
+    }
+
+    private static AchievementUnlockProviderFacade createUnlockProvider(final DateProvider dateProvider, final Repository repository) {
+        final CompositeUnlockedProvider compositeUnlockedProvider = new CompositeUnlockedProvider();
+        compositeUnlockedProvider.setRepository(repository);
+        final DateUnlockedProvider dateUnlockedProvider = new DateUnlockedProvider();
+        dateUnlockedProvider.setRepository(repository);
+        final ScoreUnlockedProvider scoreUnlockedProvider = new ScoreUnlockedProvider();
+        scoreUnlockedProvider.setRepository(repository);
+        final ScoreRangeUnlockedProvider scoreRangeUnlockedProvider = new ScoreRangeUnlockedProvider();
+        scoreRangeUnlockedProvider.setRepository(repository);
+        final TimeUnlockedProvider timeUnlockedProvider = new TimeUnlockedProvider();
+        timeUnlockedProvider.setRepository(repository);
+        final TimeRangeUnlockedProvider timeRangeUnlockedProvider = new TimeRangeUnlockedProvider();
+        timeRangeUnlockedProvider.setRepository(repository);
+
+        final AchievementUnlockProviderFacade unlockProvider = new AchievementUnlockProviderFacade();
+        unlockProvider.setRepository(repository);
+        unlockProvider.setDateProvider(dateProvider);
+        unlockProvider.setCompositeUnlockedProvider(compositeUnlockedProvider);
+        unlockProvider.setDateUnlockedProvider(dateUnlockedProvider);
+        unlockProvider.setScoreUnlockedProvider(scoreUnlockedProvider);
+        unlockProvider.setScoreRangeUnlockedProvider(scoreRangeUnlockedProvider);
+        unlockProvider.setTimeUnlockedProvider(timeUnlockedProvider);
+        unlockProvider.setTimeRangeUnlockedProvider(timeRangeUnlockedProvider);
+        return unlockProvider;
+    }
+}
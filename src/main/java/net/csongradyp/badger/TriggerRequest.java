@@ -0,0 +1,47 @@
+package net.csongradyp.badger;
+
+/**
+ * Single event trigger of a bulk {@link Badger#triggerEvents(java.util.Collection)} call.
+ * A request without score increments the event counter by one, a request with score sets the event score.
+ */
+public class TriggerRequest {
+
+    private final String userId;
+    private final String event;
+    private final Long score;
+
+    /**
+     * @param userId Owner of the event counter.
+     * @param event  Previously defined event in the achievement definition file.
+     */
+    public TriggerRequest(final String userId, final String event) {
+        this(userId, event, null);
+    }
+
+    /**
+     * @param userId Owner of the event counter.
+     * @param event  Previously defined event in the achievement definition file.
+     * @param score  new value of the event counter.
+     */
+    public TriggerRequest(final String userId, final String event, final Long score) {
+        this.userId = userId;
+        this.event = event;
+        this.score = score;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public Long getScore() {
+        return score;
+    }
+
+    public boolean isIncrement() {
+        return score == null;
+    }
+}
@@ -0,0 +1,214 @@
+package net.csongradyp.badger.async;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs event triggers on a fixed set of single-writer workers. Every owner is bound to one shard by the hash of its id,
+ * so the triggers of an owner are processed one by one in submission order and no locking is needed inside a shard.
+ * Each shard has a bounded queue and submitting to a full shard blocks the caller until there is free space.
+ * Workers are started on the first submission.
+ */
+@Named
+public class ShardedTriggerExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedTriggerExecutor.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private int shardCount = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private volatile Shard[] shards;
+    private volatile boolean shutdown;
+
+    /**
+     * Sets the number of workers and the capacity of their queues. Has to be called before the first submission.
+     */
+    public synchronized void configure(final int shardCount, final int queueCapacity) {
+        if (shardCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Shard count and queue capacity must be positive");
+        }
+        if (shards != null) {
+            throw new IllegalStateException("Trigger workers are already started");
+        }
+        this.shardCount = shardCount;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Queues the trigger to the shard of the owner.
+     *
+     * @param userId  owner of the triggered event.
+     * @param trigger evaluation to run on the worker of the shard.
+     * @return future completed with the result of the trigger or with the exception it has thrown.
+     */
+    public <T> CompletableFuture<T> submit(final String userId, final Supplier<T> trigger) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final Shard shard = getShards()[shardOf(userId)];
+        final Task<T> task = new Task<>(trigger, result);
+        try {
+            shard.queue.put(task);
+            if (shard.stopped && shard.queue.remove(task)) {
+                task.reject();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private int shardOf(final String userId) {
+        final int hash = userId.hashCode();
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shardCount;
+    }
+
+    private Shard[] getShards() {
+        Shard[] current = shards;
+        if (current == null) {
+            synchronized (this) {
+                current = shards;
+                if (current == null) {
+                    current = startShards();
+                    shards = current;
+                }
+            }
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Trigger workers are shut down");
+        }
+        return current;
+    }
+
+    private Shard[] startShards() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Trigger workers are shut down");
+        }
+        final Shard[] started = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            started[i] = new Shard(queueCapacity, "badger-trigger-" + i);
+            started[i].worker.start();
+        }
+        LOG.debug("Started {} trigger workers", shardCount);
+        return started;
+    }
+
+    /**
+     * Stops the workers and waits for them to exit. Triggers already queued are processed before the workers exit,
+     * unless a queue stays full for {@link #SHUTDOWN_TIMEOUT_SECONDS}. Triggers which could not be processed are
+     * completed with a {@link RejectedExecutionException}.
+     */
+    @PreDestroy
+    public void shutdown() {
+        final Shard[] current;
+        synchronized (this) {
+            shutdown = true;
+            current = shards;
+        }
+        if (current != null) {
+            for (Shard shard : current) {
+                shard.stop();
+            }
+            for (Shard shard : current) {
+                shard.awaitExit();
+            }
+        }
+    }
+
+    private static final class Task<T> implements Runnable {
+
+        private final Supplier<T> trigger;
+        private final CompletableFuture<T> result;
+
+        private Task(final Supplier<T> trigger, final CompletableFuture<T> result) {
+            this.trigger = trigger;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.complete(trigger.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void reject() {
+            result.completeExceptionally(new RejectedExecutionException("Trigger workers are shut down"));
+        }
+    }
+
+    /**
+     * Worker of one shard. Once the worker stops it rejects every task left in its queue, and submissions racing the
+     * stop take their own task back and reject it.
+     */
+    private static final class Shard implements Runnable {
+
+        private static final Task<Void> POISON = new Task<>(() -> null, new CompletableFuture<>());
+
+        private final BlockingQueue<Task<?>> queue;
+        private final Thread worker;
+        private volatile boolean stopped;
+
+        private Shard(final int queueCapacity, final String name) {
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            worker = new Thread(this, name);
+            worker.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                Task<?> task = queue.take();
+                while (task != POISON) {
+                    task.run();
+                    task = queue.take();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopped = true;
+                Task<?> task;
+                while ((task = queue.poll()) != null) {
+                    task.reject();
+                }
+            }
+        }
+
+        private void awaitExit() {
+            if (worker == Thread.currentThread()) {
+                return;
+            }
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+                if (worker.isAlive()) {
+                    LOG.warn("Trigger worker {} is still running after the shutdown timeout", worker.getName());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void stop() {
+            try {
+                if (!queue.offer(POISON, SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOG.warn("Trigger queue of {} is still full, rejecting the queued triggers", worker.getName());
+                    worker.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                worker.interrupt();
+            }
+        }
+    }
+}
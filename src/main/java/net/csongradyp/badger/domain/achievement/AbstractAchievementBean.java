@@ -7,8 +7,9 @@ import net.csongradyp.badger.domain.IAchievementBean;
 
 public abstract class AbstractAchievementBean implements IAchievementBean {
 
-    private static final String KEY_FORMAT = "%s.%s";
     private String id;
+    private String titleKey;
+    private String textKey;
     private String category;
     private List<String> subscriptions;
     private Integer maxLevel;
@@ -27,6 +28,8 @@ public abstract class AbstractAchievementBean implements IAchievementBean {
     @Override
     public void setId(final String id) {
         this.id = id;
+        titleKey = id + ".title";
+        textKey = id + ".text";
     }
 
     @Override
@@ -68,11 +71,11 @@ public abstract class AbstractAchievementBean implements IAchievementBean {
 
     @Override
     public String getTitleKey() {
-        return String.format(KEY_FORMAT, id, "title");
+        return titleKey;
     }
 
     @Override
     public String getTextKey() {
-        return String.format(KEY_FORMAT, id, "text");
+        return textKey;
     }
 }
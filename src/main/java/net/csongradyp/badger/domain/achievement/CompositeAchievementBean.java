@@ -5,12 +5,14 @@ import java.util.Collection;
 import java.util.List;
 import net.csongradyp.badger.domain.AchievementType;
 import net.csongradyp.badger.domain.ITriggerableAchievementBean;
+import net.csongradyp.badger.domain.achievement.relation.CompiledRelation;
 import net.csongradyp.badger.domain.achievement.relation.Relation;
 import net.csongradyp.badger.domain.achievement.trigger.ITrigger;
 
 public class CompositeAchievementBean extends AbstractAchievementBean implements ITriggerableAchievementBean<ITrigger> {
 
     private Relation relation;
+    private CompiledRelation compiledRelation;
     private List<ITrigger> triggers;
 
     public CompositeAchievementBean() {
@@ -38,9 +40,17 @@ public class CompositeAchievementBean extends AbstractAchievementBean implements
 
     public void setRelation(final Relation relation) {
         this.relation = relation;
+        compiledRelation = relation != null ? CompiledRelation.compile(relation) : null;
     }
 
     public Relation getRelation() {
         return relation;
     }
+
+    /**
+     * @return short-circuit branch program of the relation, used to evaluate the achievement.
+     */
+    public CompiledRelation getCompiledRelation() {
+        return compiledRelation;
+    }
 }
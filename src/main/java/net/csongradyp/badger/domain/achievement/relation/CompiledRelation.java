@@ -0,0 +1,165 @@
+package net.csongradyp.badger.domain.achievement.relation;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.csongradyp.badger.domain.AchievementType;
+import net.csongradyp.badger.domain.achievement.trigger.DateTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.ITrigger;
+import net.csongradyp.badger.domain.achievement.trigger.ScoreTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTriggerPair;
+
+/**
+ * Flat branch program compiled from a {@link Relation} tree.
+ * Every trigger of the tree becomes a single range test on one of the primitive inputs with a jump target for both
+ * outcomes, so AND and OR groups short-circuit and evaluation is a loop over primitive arrays without recursion,
+ * type dispatch or allocation. Triggers which cannot fire on the primitive inputs never fire, as in {@link RelationElement}.
+ */
+public class CompiledRelation implements IRelation {
+
+    private static final int TRUE = -1;
+    private static final int FALSE = -2;
+
+    private static final int SCORE = 0;
+    private static final int DAY = 1;
+    private static final int MINUTE = 2;
+    private static final int MINUTE_WRAP = 3;
+
+    private final int entry;
+    private final int[] opcodes;
+    private final long[] lows;
+    private final long[] highs;
+    private final int[] onTrue;
+    private final int[] onFalse;
+
+    private CompiledRelation(final int entry, final List<Instruction> program) {
+        this.entry = entry;
+        opcodes = new int[program.size()];
+        lows = new long[program.size()];
+        highs = new long[program.size()];
+        onTrue = new int[program.size()];
+        onFalse = new int[program.size()];
+        for (int i = 0; i < program.size(); i++) {
+            final Instruction instruction = program.get(i);
+            opcodes[i] = instruction.opcode;
+            lows[i] = instruction.low;
+            highs[i] = instruction.high;
+            onTrue[i] = instruction.onTrue;
+            onFalse[i] = instruction.onFalse;
+        }
+    }
+
+    public static CompiledRelation compile(final IRelation relation) {
+        final List<Instruction> program = new ArrayList<>();
+        final int entry = compile(relation, TRUE, FALSE, program);
+        return new CompiledRelation(entry, program);
+    }
+
+    /**
+     * Emits the instructions of the relation and returns its entry point. Children are emitted from the last one,
+     * so the jump targets of every instruction are already known when it is emitted.
+     */
+    private static int compile(final IRelation relation, final int whenTrue, final int whenFalse, final List<Instruction> program) {
+        if (relation instanceof Relation) {
+            final Relation group = (Relation) relation;
+            final IRelation[] children = group.getChildren().toArray(new IRelation[group.getChildren().size()]);
+            if (children.length == 0) {
+                return whenFalse;
+            }
+            final boolean and = group.getOperator() == RelationOperator.AND;
+            int next = and ? whenTrue : whenFalse;
+            for (int i = children.length - 1; i >= 0; i--) {
+                next = and ? compile(children[i], next, whenFalse, program) : compile(children[i], whenTrue, next, program);
+            }
+            return next;
+        }
+        if (relation instanceof RelationElement) {
+            final ITrigger[] triggers = ((RelationElement) relation).getTriggers().toArray(new ITrigger[0]);
+            int next = whenFalse;
+            for (int i = triggers.length - 1; i >= 0; i--) {
+                final Instruction instruction = toInstruction(triggers[i]);
+                if (instruction != null) {
+                    instruction.onTrue = whenTrue;
+                    instruction.onFalse = next;
+                    program.add(instruction);
+                    next = program.size() - 1;
+                }
+            }
+            return next;
+        }
+        throw new IllegalArgumentException("Relation cannot be compiled: " + relation);
+    }
+
+    private static Instruction toInstruction(final ITrigger trigger) {
+        final AchievementType type = trigger.getType();
+        if (AchievementType.SCORE == type) {
+            final ScoreTrigger scoreTrigger = (ScoreTrigger) trigger;
+            final long value = scoreTrigger.getTrigger();
+            switch (scoreTrigger.getOperation()) {
+                case GREATER_THAN:
+                    return new Instruction(SCORE, value, Long.MAX_VALUE);
+                case LESS_THAN:
+                    return new Instruction(SCORE, Long.MIN_VALUE, value);
+                default:
+                    return new Instruction(SCORE, value, value);
+            }
+        } else if (AchievementType.DATE == type) {
+            final int dayOfYear = ((DateTrigger) trigger).getDayOfYear();
+            return new Instruction(DAY, dayOfYear, dayOfYear);
+        } else if (AchievementType.TIME == type) {
+            final int minuteOfDay = ((TimeTrigger) trigger).getMinuteOfDay();
+            return new Instruction(MINUTE, minuteOfDay, minuteOfDay);
+        } else if (AchievementType.TIME_RANGE == type) {
+            final TimeTriggerPair pair = (TimeTriggerPair) trigger;
+            final int opcode = pair.getStartMinute() <= pair.getEndMinute() ? MINUTE : MINUTE_WRAP;
+            return new Instruction(opcode, pair.getStartMinute(), pair.getEndMinute());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean evaluate(final long score, final int dayOfYear, final int minuteOfDay) {
+        int pc = entry;
+        while (pc >= 0) {
+            final boolean fired;
+            switch (opcodes[pc]) {
+                case SCORE:
+                    fired = score >= lows[pc] && score <= highs[pc];
+                    break;
+                case DAY:
+                    fired = dayOfYear >= lows[pc] && dayOfYear <= highs[pc];
+                    break;
+                case MINUTE:
+                    fired = minuteOfDay >= lows[pc] && minuteOfDay <= highs[pc];
+                    break;
+                default:
+                    fired = minuteOfDay >= lows[pc] || minuteOfDay <= highs[pc];
+                    break;
+            }
+            pc = fired ? onTrue[pc] : onFalse[pc];
+        }
+        return pc == TRUE;
+    }
+
+    /**
+     * @return number of trigger tests in the program.
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    private static final class Instruction {
+
+        private final int opcode;
+        private final long low;
+        private final long high;
+        private int onTrue;
+        private int onFalse;
+
+        private Instruction(final int opcode, final long low, final long high) {
+            this.opcode = opcode;
+            this.low = low;
+            this.high = high;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package net.csongradyp.badger.domain.achievement.relation;
 
-import java.util.Date;
-
 public interface IRelation {
 
-    Boolean evaluate(Long score, Date date, Date time);
+    /**
+     * @param score       current score of the triggered event.
+     * @param dayOfYear   current day of the year on a leap year calendar.
+     * @param minuteOfDay current minute of the day.
+     */
+    boolean evaluate(long score, int dayOfYear, int minuteOfDay);
 }
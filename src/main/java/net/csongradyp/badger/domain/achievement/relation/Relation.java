@@ -1,7 +1,6 @@
 package net.csongradyp.badger.domain.achievement.relation;
 
 import java.util.Collection;
-import java.util.Date;
 import java.util.LinkedHashSet;
 
 public class Relation implements IRelation {
@@ -30,19 +29,17 @@ public class Relation implements IRelation {
     }
 
     @Override
-    public Boolean evaluate(final Long triggerValue, final Date date, final Date time) {
-        Boolean result = null;
+    public boolean evaluate(final long score, final int dayOfYear, final int minuteOfDay) {
+        if (children.isEmpty()) {
+            return false;
+        }
+        final boolean and = operator == RelationOperator.AND;
         for (IRelation child : children) {
-            final Boolean childResult = child.evaluate(triggerValue, date, time);
-            if (result == null) {
-                result = childResult;
-            } else if (operator == RelationOperator.AND) {
-                result &= childResult;
-            } else {
-                result |= childResult;
+            if (child.evaluate(score, dayOfYear, minuteOfDay) != and) {
+                return !and;
             }
         }
-        return result;
+        return and;
     }
 
 }
@@ -1,9 +1,12 @@
 package net.csongradyp.badger.domain.achievement.relation;
 
 import java.util.Collection;
-import java.util.Date;
 import net.csongradyp.badger.domain.AchievementType;
+import net.csongradyp.badger.domain.achievement.trigger.DateTrigger;
 import net.csongradyp.badger.domain.achievement.trigger.ITrigger;
+import net.csongradyp.badger.domain.achievement.trigger.ScoreTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTriggerPair;
 
 public class RelationElement implements IRelation {
 
@@ -14,18 +17,30 @@ public class RelationElement implements IRelation {
     }
 
     @Override
-    public Boolean evaluate(final Long score, final Date date, final Date time) {
-        Boolean triggered = false;
+    public boolean evaluate(final long score, final int dayOfYear, final int minuteOfDay) {
         for (ITrigger trigger : triggers) {
-            final AchievementType type = trigger.getType();
-            if (AchievementType.DATE == type) {
-                triggered |= trigger.fire(date);
-            } else if (AchievementType.TIME == type || AchievementType.TIME_RANGE == type) {
-                triggered |= trigger.fire(time);
-            } else if (AchievementType.SCORE == type) {
-                triggered |= trigger.fire(score);
+            if (fire(trigger, score, dayOfYear, minuteOfDay)) {
+                return true;
             }
         }
-        return triggered;
+        return false;
+    }
+
+    private static boolean fire(final ITrigger trigger, final long score, final int dayOfYear, final int minuteOfDay) {
+        final AchievementType type = trigger.getType();
+        if (AchievementType.DATE == type) {
+            return ((DateTrigger) trigger).fire(dayOfYear);
+        } else if (AchievementType.TIME == type) {
+            return ((TimeTrigger) trigger).fire(minuteOfDay);
+        } else if (AchievementType.TIME_RANGE == type) {
+            return ((TimeTriggerPair) trigger).fire(minuteOfDay);
+        } else if (AchievementType.SCORE == type) {
+            return ((ScoreTrigger) trigger).fire(score);
+        }
+        return false;
+    }
+
+    public Collection<ITrigger> getTriggers() {
+        return triggers;
     }
 }
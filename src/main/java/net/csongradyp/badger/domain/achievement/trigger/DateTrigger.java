@@ -2,22 +2,58 @@ package net.csongradyp.badger.domain.achievement.trigger;
 
 import java.util.Date;
 import net.csongradyp.badger.domain.AchievementType;
-import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 
+/**
+ * Fires on the given month and day of every year. The date is compiled to its day of the year on a leap year
+ * calendar, so firing is a single integer comparison.
+ */
 public class DateTrigger implements ITrigger<Date> {
 
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335};
+    private static final int LEAP_YEAR = 2000;
+
     private final Date date;
+    private final int dayOfYear;
 
     public DateTrigger(final Date date) {
         this.date = date;
+        dayOfYear = toDayOfYear(new LocalDate(date));
+    }
+
+    /**
+     * Creates the trigger of a day of the year on a leap year calendar, independently of the time zone and the current
+     * year. The date of the trigger falls on the year {@code MM-dd} dates are parsed into.
+     */
+    public static DateTrigger ofDayOfYear(final int dayOfYear) {
+        int month = DAYS_BEFORE_MONTH.length;
+        while (DAYS_BEFORE_MONTH[month - 1] >= dayOfYear) {
+            month--;
+        }
+        return new DateTrigger(new LocalDate(LEAP_YEAR, month, dayOfYear - DAYS_BEFORE_MONTH[month - 1]).toDate());
+    }
+
+    /**
+     * @return day of the year on a leap year calendar, from 1 to 366.
+     */
+    public static int toDayOfYear(final int monthOfYear, final int dayOfMonth) {
+        return DAYS_BEFORE_MONTH[monthOfYear - 1] + dayOfMonth;
+    }
+
+    private static int toDayOfYear(final LocalDate date) {
+        return toDayOfYear(date.getMonthOfYear(), date.getDayOfMonth());
     }
 
     @Override
     public Boolean fire(final Date triggerValue) {
-        final LocalDate nowLocal = new DateTime(date).withYear(2000).toLocalDate();
-        final LocalDate triggerLocal = new DateTime(triggerValue).withYear(2000).toLocalDate();
-        return nowLocal.isEqual(triggerLocal);
+        return fire(toDayOfYear(new LocalDate(triggerValue)));
+    }
+
+    /**
+     * @param dayOfYear day of the year on a leap year calendar.
+     */
+    public boolean fire(final int dayOfYear) {
+        return this.dayOfYear == dayOfYear;
     }
 
     @Override
@@ -28,4 +64,8 @@ public class DateTrigger implements ITrigger<Date> {
     public Date getDate() {
         return date;
     }
+
+    public int getDayOfYear() {
+        return dayOfYear;
+    }
 }
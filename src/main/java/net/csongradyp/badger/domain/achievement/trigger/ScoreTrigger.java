@@ -42,7 +42,11 @@ public class ScoreTrigger implements ITrigger<Long> {
 
     @Override
     public Boolean fire(final Long triggerValue) {
-        Boolean triggered = false;
+        return fire(triggerValue.longValue());
+    }
+
+    public boolean fire(final long triggerValue) {
+        boolean triggered = false;
         switch (operation) {
             case GREATER_THAN:
                 triggered = triggerValue >= trigger;
@@ -51,7 +55,7 @@ public class ScoreTrigger implements ITrigger<Long> {
                 triggered = triggerValue <= trigger;
                 break;
             case EQUALS:
-                triggered = triggerValue.equals(trigger);
+                triggered = triggerValue == trigger;
                 break;
         }
         return triggered;
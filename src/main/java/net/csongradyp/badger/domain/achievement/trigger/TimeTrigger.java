@@ -2,21 +2,35 @@ package net.csongradyp.badger.domain.achievement.trigger;
 
 import java.util.Date;
 import net.csongradyp.badger.domain.AchievementType;
-import org.joda.time.DateTime;
 import org.joda.time.LocalTime;
 
+/**
+ * Fires during the given minute of every day. The time is compiled to its minute of the day, so firing is a single
+ * integer comparison.
+ */
 public class TimeTrigger implements ITrigger<Date> {
 
+    private static final int MILLIS_PER_MINUTE = 60 * 1000;
+
     private final LocalTime time;
+    private final int minuteOfDay;
 
     public TimeTrigger(final LocalTime time) {
         this.time = time;
+        minuteOfDay = toMinuteOfDay(time);
+    }
+
+    static int toMinuteOfDay(final LocalTime time) {
+        return time.getMillisOfDay() / MILLIS_PER_MINUTE;
     }
 
     @Override
     public Boolean fire(final Date triggerValue) {
-        final LocalTime trigger = new DateTime(triggerValue).toLocalTime();
-        return time.isEqual(trigger);
+        return fire(toMinuteOfDay(new LocalTime(triggerValue)));
+    }
+
+    public boolean fire(final int minuteOfDay) {
+        return this.minuteOfDay == minuteOfDay;
     }
 
     @Override
@@ -27,4 +41,8 @@ public class TimeTrigger implements ITrigger<Date> {
     public LocalTime getTime() {
         return time;
     }
+
+    public int getMinuteOfDay() {
+        return minuteOfDay;
+    }
 }
@@ -2,32 +2,35 @@ package net.csongradyp.badger.domain.achievement.trigger;
 
 import java.util.Date;
 import net.csongradyp.badger.domain.AchievementType;
-import org.joda.time.DateTime;
 import org.joda.time.LocalTime;
 
+/**
+ * Fires between the start and end minute of the day, both inclusive. If the end is before the start the range
+ * wraps around midnight.
+ */
 public class TimeTriggerPair implements ITrigger<Date> {
     private final LocalTime startTrigger;
     private final LocalTime endTrigger;
+    private final int startMinute;
+    private final int endMinute;
 
     public TimeTriggerPair(final LocalTime startTrigger, final LocalTime endTrigger) {
         this.startTrigger = startTrigger;
         this.endTrigger = endTrigger;
+        startMinute = TimeTrigger.toMinuteOfDay(startTrigger);
+        endMinute = TimeTrigger.toMinuteOfDay(endTrigger);
     }
 
     @Override
     public Boolean fire(final Date triggerValue) {
-        Boolean triggered;
-        final LocalTime currentTime = new DateTime(triggerValue).toLocalTime();
-        if (startTrigger.isBefore(endTrigger)) {
-            triggered = isInRange(startTrigger, endTrigger, currentTime);
-        } else {
-            triggered = !isInRange(endTrigger, startTrigger, currentTime);
-        }
-        return triggered;
+        return fire(TimeTrigger.toMinuteOfDay(new LocalTime(triggerValue)));
     }
 
-    private Boolean isInRange(final LocalTime startTrigger, final LocalTime endTrigger, final LocalTime currentTime) {
-        return (currentTime.isAfter(startTrigger) || currentTime.isEqual(startTrigger)) && (currentTime.isBefore(endTrigger) || currentTime.isEqual(endTrigger));
+    public boolean fire(final int minuteOfDay) {
+        if (startMinute <= endMinute) {
+            return minuteOfDay >= startMinute && minuteOfDay <= endMinute;
+        }
+        return minuteOfDay >= startMinute || minuteOfDay <= endMinute;
     }
 
     @Override
@@ -42,4 +45,12 @@ public class TimeTriggerPair implements ITrigger<Date> {
     public LocalTime getEndTrigger() {
         return endTrigger;
     }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public int getEndMinute() {
+        return endMinute;
+    }
 }
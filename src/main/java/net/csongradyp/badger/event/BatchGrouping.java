@@ -0,0 +1,16 @@
+package net.csongradyp.badger.event;
+
+/**
+ * Grouping of the unlocked achievement events delivered to an {@link IAchievementUnlockedBatchHandler}.
+ */
+public enum BatchGrouping {
+
+    /**
+     * Every batch holds the events of a single owner.
+     */
+    OWNER,
+    /**
+     * Batches hold the events of every owner published within the linger time.
+     */
+    WINDOW
+}
@@ -1,21 +1,82 @@
 package net.csongradyp.badger.event;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import net.csongradyp.badger.AchievementDefinition;
 import net.csongradyp.badger.event.message.ScoreUpdatedEvent;
 import net.csongradyp.badger.event.wrapper.AchievementUnlockedHandlerWrapper;
 import net.csongradyp.badger.event.wrapper.ScoreUpdateHandlerWrapper;
 
+/**
+ * Publishes unlock and score update events to the subscribers. Subscribers are kept in copy-on-write lists, so they can
+ * subscribe and unsubscribe while events are published. For dispatching they are also indexed by their
+ * {@link SubscriptionFilter}, so publishing an event only visits the subscribers which can match it. Handlers are called on the publishing thread unless they are
+ * wrapped for asynchronous delivery through their own bounded {@link SubscriberQueue}.
+ */
 @Named
 public class EventBus {
 
-    private final Collection<AchievementUnlockedHandlerWrapper> unlockedSubscribers = new ArrayList<>();
-    private final Collection<ScoreUpdateHandlerWrapper> scoreUpdateSubscribers = new ArrayList<>();
+    private final Collection<AchievementUnlockedHandlerWrapper> unlockedSubscribers = new CopyOnWriteArrayList<>();
+    private final Collection<ScoreUpdateHandlerWrapper> scoreUpdateSubscribers = new CopyOnWriteArrayList<>();
+    private final SubscriberIndex<AchievementUnlockedHandlerWrapper> unlockedIndex = new SubscriberIndex<>();
+    private final SubscriberIndex<ScoreUpdateHandlerWrapper> scoreUpdateIndex = new SubscriberIndex<>();
+    private volatile Map<String, Set<String>> achievementIdsByEvent = Collections.emptyMap();
+    private volatile ScoreConflator scoreConflator;
 
-    public void subscribeOnUnlock(final AchievementUnlockedHandlerWrapper handler) {
+    /**
+     * Replaces the event to achievement mapping used by the unlock subscriptions filtered by event name. Subscribers
+     * filtered only by event name are indexed again under the achievements subscribed to their event.
+     */
+    public synchronized void setAchievementDefinition(final AchievementDefinition achievementDefinition) {
+        final Map<String, Set<String>> previousIds = achievementIdsByEvent;
+        final Map<String, Set<String>> achievementIds = new HashMap<>();
+        achievementDefinition.getAllByEvents().forEach((event, achievements) -> {
+            final Set<String> ids = new HashSet<>();
+            achievements.forEach(achievement -> ids.add(achievement.getId()));
+            achievementIds.put(event, Collections.unmodifiableSet(ids));
+        });
+        for (AchievementUnlockedHandlerWrapper handler : unlockedSubscribers) {
+            if (isIndexedByEvent(handler.getFilter())) {
+                final Set<String> previous = previousIds.getOrDefault(handler.getFilter().getEvent(), Collections.emptySet());
+                final Set<String> current = achievementIds.getOrDefault(handler.getFilter().getEvent(), Collections.emptySet());
+                current.stream().filter(id -> !previous.contains(id)).forEach(id -> unlockedIndex.addByAchievement(handler, id));
+                previous.stream().filter(id -> !current.contains(id)).forEach(id -> unlockedIndex.removeByAchievement(handler, id));
+            }
+        }
+        achievementIdsByEvent = achievementIds;
+    }
+
+    /**
+     * Subscribes the handler to the unlock events. A handler filtered by event name receives the unlocks of the
+     * achievements subscribed to the event in the current definitions.
+     */
+    public synchronized void subscribeOnUnlock(final AchievementUnlockedHandlerWrapper handler) {
         unlockedSubscribers.add(handler);
+        if (isIndexedByEvent(handler.getFilter())) {
+            achievementIdsOf(handler.getFilter().getEvent()).forEach(id -> unlockedIndex.addByAchievement(handler, id));
+        } else {
+            unlockedIndex.add(handler, handler.getFilter());
+        }
+    }
+
+    /**
+     * @return {@code true} if the unlock subscriber has to be indexed under the achievements of its event, which is
+     * the most selective key of its filter.
+     */
+    private static boolean isIndexedByEvent(final SubscriptionFilter filter) {
+        return filter.getEvent() != null && filter.getAchievementId() == null;
+    }
+
+    private Set<String> achievementIdsOf(final String event) {
+        return achievementIdsByEvent.getOrDefault(event, Collections.emptySet());
     }
 
     public void unSubscribeOnUnlock(final IAchievementUnlockedHandler handler) {
@@ -28,23 +89,56 @@ public class EventBus {
         }
     }
 
-    private void unSubscribe(final AchievementUnlockedHandlerWrapper listener) {
+    public void unSubscribeOnUnlockBatches(final IAchievementUnlockedBatchHandler handler) {
+        final Optional<AchievementUnlockedHandlerWrapper> registeredHandler = unlockedSubscribers.stream()
+                .filter(wrapper -> wrapper.getWrapped() instanceof UnlockedEventBatcher)
+                .filter(wrapper -> ((UnlockedEventBatcher) wrapper.getWrapped()).getBatchHandler().equals(handler))
+                .findAny();
+        if (registeredHandler.isPresent()) {
+            final AchievementUnlockedHandlerWrapper listener = registeredHandler.get();
+            unSubscribe(listener);
+        }
+    }
+
+    private synchronized void unSubscribe(final AchievementUnlockedHandlerWrapper listener) {
         final boolean unsubscribe = unlockedSubscribers.remove(listener);
         if (!unsubscribe) {
             throw new SubscriptionException("Unsubscribe failed for achievement unlocked handler" + listener.getWrapped());
         }
+        if (isIndexedByEvent(listener.getFilter())) {
+            achievementIdsOf(listener.getFilter().getEvent()).forEach(id -> unlockedIndex.removeByAchievement(listener, id));
+        } else {
+            unlockedIndex.remove(listener, listener.getFilter());
+        }
+        listener.close();
     }
 
+    /**
+     * Calls the handlers whose filter matches the event. Only the handlers indexed by one of the keys of the event are
+     * visited. An event name filter matches the unlocks of the achievements subscribed to the event.
+     */
     public void publishUnlocked(final IAchievementUnlockedEvent achievement) {
-        unlockedSubscribers.stream().forEach(handler -> handler.onUnlocked(achievement));
+        unlockedIndex.forEachCandidate(achievement.getOwner(), null, achievement.getId(), achievement.getCategory(), handler -> {
+            final SubscriptionFilter filter = handler.getFilter();
+            if (filter.matches(achievement) && (filter.getEvent() == null || achievementIdsOf(filter.getEvent()).contains(achievement.getId()))) {
+                handler.onUnlocked(achievement);
+            }
+        });
     }
 
     public void subscribeOnScoreChanged(final ScoreUpdateHandlerWrapper handler) {
+        final SubscriptionFilter filter = handler.getFilter();
+        if (filter.getAchievementId() != null || filter.getCategory() != null) {
+            throw new SubscriptionException("Score update handlers can only be filtered by owner and event name: " + filter);
+        }
         scoreUpdateSubscribers.add(handler);
+        scoreUpdateIndex.add(handler, filter);
     }
 
     public void unSubscribeAllOnScoreChanged() {
+        scoreUpdateSubscribers.forEach(ScoreUpdateHandlerWrapper::close);
         scoreUpdateSubscribers.clear();
+        scoreUpdateIndex.clear();
     }
 
     public void unSubscribeOnScoreChanged(final IScoreUpdateHandler handler) {
@@ -62,10 +156,57 @@ public class EventBus {
         if (!unsubscribe) {
             throw new SubscriptionException("Unsubscribe failed for score changed handler" + listener.getWrapped());
         }
+        scoreUpdateIndex.remove(listener, listener.getFilter());
+        listener.close();
+    }
+
+    /**
+     * Publishes the new score of an event of the owner. When conflation is enabled only the latest score of the owner
+     * and event is published at the end of the conflation window.
+     */
+    public void publishScoreChanged(final String owner, final String event, final long score) {
+        if (scoreUpdateSubscribers.isEmpty()) {
+            return;
+        }
+        final ScoreConflator conflator = scoreConflator;
+        if (conflator != null) {
+            conflator.update(owner, event, score);
+        } else {
+            dispatchScoreChanged(new ScoreUpdatedEvent(owner, event, score));
+        }
     }
 
     public void publishScoreChanged(final ScoreUpdatedEvent scoreUpdatedEvent) {
-        scoreUpdateSubscribers.stream().forEach(handler -> handler.onUpdate(scoreUpdatedEvent));
+        final ScoreConflator conflator = scoreConflator;
+        if (conflator != null) {
+            conflator.update(scoreUpdatedEvent.getOwner(), scoreUpdatedEvent.getEvent(), scoreUpdatedEvent.getScore());
+        } else {
+            dispatchScoreChanged(scoreUpdatedEvent);
+        }
+    }
+
+    private void dispatchScoreChanged(final ScoreUpdatedEvent scoreUpdatedEvent) {
+        scoreUpdateIndex.forEachCandidate(scoreUpdatedEvent.getOwner(), scoreUpdatedEvent.getEvent(), null, null, handler -> {
+            if (handler.getFilter().matches(scoreUpdatedEvent)) {
+                handler.onUpdate(scoreUpdatedEvent);
+            }
+        });
+    }
+
+    /**
+     * Conflates the score updates: within each window only the latest score of every owner and event is published.
+     * Pending updates of the previous window are published when the window is changed.
+     *
+     * @param windowMillis length of the conflation window, {@code 0} publishes every update immediately.
+     */
+    public synchronized void setScoreConflationWindow(final long windowMillis) {
+        if (scoreConflator != null) {
+            scoreConflator.close();
+            scoreConflator = null;
+        }
+        if (windowMillis > 0) {
+            scoreConflator = new ScoreConflator(windowMillis, this::dispatchScoreChanged);
+        }
     }
 
     public Collection<AchievementUnlockedHandlerWrapper> getUnlockedSubscribers() {
@@ -75,4 +216,15 @@ public class EventBus {
     public Collection<ScoreUpdateHandlerWrapper> getScoreUpdateSubscribers() {
         return scoreUpdateSubscribers;
     }
+
+    /**
+     * Publishes the pending conflated score updates and unlock batches and stops the delivery threads of the
+     * asynchronous subscribers after their queued events.
+     */
+    @PreDestroy
+    public void shutdown() {
+        setScoreConflationWindow(0);
+        unlockedSubscribers.forEach(AchievementUnlockedHandlerWrapper::close);
+        scoreUpdateSubscribers.forEach(ScoreUpdateHandlerWrapper::close);
+    }
 }
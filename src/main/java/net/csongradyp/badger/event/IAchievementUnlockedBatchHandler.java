@@ -0,0 +1,16 @@
+package net.csongradyp.badger.event;
+
+import java.util.List;
+
+/**
+ * Interface to handle unlocked achievement events in batches, for consumers which write to their downstream in bulk.
+ */
+public interface IAchievementUnlockedBatchHandler {
+
+    /**
+     * Callback method to receive notification about the unlocked achievements.
+     *
+     * @param achievementUnlockedEvents Unlocked achievement information in publication order.
+     */
+    void onUnlockedBatch(List<IAchievementUnlockedEvent> achievementUnlockedEvents);
+}
@@ -1,6 +1,7 @@
 package net.csongradyp.badger.event;
 
 import java.util.Date;
+import java.util.Locale;
 
 public interface IAchievementUnlockedEvent {
 
@@ -12,6 +13,14 @@ public interface IAchievementUnlockedEvent {
 
     String getText();
 
+    default String getTitle(Locale locale) {
+        return getTitle();
+    }
+
+    default String getText(Locale locale) {
+        return getText();
+    }
+
     Date getAcquireDate();
 
     String getTriggerValue();
@@ -0,0 +1,21 @@
+package net.csongradyp.badger.event;
+
+/**
+ * Behaviour of an asynchronous subscriber when its queue is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The publishing thread waits until the subscriber has taken an event from its queue.
+     */
+    BLOCK,
+    /**
+     * The oldest queued event is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * A queued event of the same owner and event is replaced by the new one, so the subscriber only receives the latest
+     * state of every key. The publishing thread waits when the queue is full of different keys.
+     */
+    COALESCE
+}
@@ -0,0 +1,137 @@
+package net.csongradyp.badger.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import net.csongradyp.badger.event.message.ScoreUpdatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Conflation stage of the score update events. Updates only overwrite the primitive slot of their owner and event, and
+ * once per window a single event with the latest value is published for every slot updated since the previous window.
+ * The cost of the subscribers is bounded by the number of updated keys per window instead of the number of updates.
+ * Slots which are not updated again during the next window are released, so the memory is bounded by the number of
+ * keys updated per window as well.
+ */
+class ScoreConflator implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScoreConflator.class);
+
+    private static final String NO_OWNER = "";
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Slot>> slotsByOwner = new ConcurrentHashMap<>();
+    private final Queue<Slot> updatedSlots = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger updatedCount = new AtomicInteger();
+    private final Consumer<ScoreUpdatedEvent> publisher;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    /**
+     * @param windowMillis length of the conflation window.
+     * @param publisher    publishes the conflated events to the subscribers.
+     */
+    ScoreConflator(final long windowMillis, final Consumer<ScoreUpdatedEvent> publisher) {
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("Conflation window must be positive");
+        }
+        this.publisher = publisher;
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "badger-score-conflator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void update(final String owner, final String event, final long value) {
+        final String ownerKey = owner != null ? owner : NO_OWNER;
+        ConcurrentMap<String, Slot> slots = slotsByOwner.get(ownerKey);
+        if (slots == null) {
+            slots = slotsByOwner.computeIfAbsent(ownerKey, key -> new ConcurrentHashMap<>());
+        }
+        Slot slot = slots.get(event);
+        if (slot == null) {
+            final ConcurrentMap<String, Slot> ownerSlots = slots;
+            slot = slots.computeIfAbsent(event, key -> new Slot(owner, ownerKey, key, ownerSlots));
+        }
+        slot.value = value;
+        if (slot.updated.compareAndSet(false, true)) {
+            updatedSlots.add(slot);
+            updatedCount.incrementAndGet();
+            if (closed) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Publishes the slots updated before the flush started. Slots updated during the flush are left for the next one.
+     * Published slots which were not updated again are released, a later update of their key creates a new slot.
+     */
+    private void flush() {
+        for (int remaining = updatedCount.get(); remaining > 0; remaining--) {
+            final Slot slot = updatedSlots.poll();
+            if (slot == null) {
+                return;
+            }
+            updatedCount.decrementAndGet();
+            slot.updated.set(false);
+            try {
+                publisher.accept(new ScoreUpdatedEvent(slot.owner, slot.event, slot.value));
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to publish conflated score of event " + slot.event, e);
+            }
+            if (!slot.updated.get()) {
+                release(slot);
+            }
+        }
+    }
+
+    private void release(final Slot slot) {
+        slot.slots.remove(slot.event, slot);
+        if (slot.slots.isEmpty()) {
+            slotsByOwner.remove(slot.ownerKey, slot.slots);
+        }
+    }
+
+    /**
+     * Stops the conflation window and publishes the pending updates on the calling thread. Updates arriving after the
+     * close are published by the updating thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flusher.shutdownNow();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private static final class Slot {
+
+        private final String owner;
+        private final String ownerKey;
+        private final String event;
+        private final ConcurrentMap<String, Slot> slots;
+        private final AtomicBoolean updated = new AtomicBoolean();
+        private volatile long value;
+
+        private Slot(final String owner, final String ownerKey, final String event, final ConcurrentMap<String, Slot> slots) {
+            this.owner = owner;
+            this.ownerKey = ownerKey;
+            this.event = event;
+            this.slots = slots;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package net.csongradyp.badger.event;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Subscribers indexed by the most selective key of their {@link SubscriptionFilter}: achievement id, event name, owner
+ * and category in this order. Subscribers without any key are kept in a separate list. Every subscriber is stored under
+ * a single key, so looking up the candidates of an event visits each of them at most once and only the subscribers
+ * which are unfiltered or keyed by one of the values of the event. The buckets are copy-on-write lists, so subscribers
+ * can come and go while events are published.
+ *
+ * @param <S> type of the subscribers.
+ */
+class SubscriberIndex<S> {
+
+    private final Collection<S> unfiltered = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<String, Collection<S>> byAchievement = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Collection<S>> byEvent = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Collection<S>> byOwner = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Collection<S>> byCategory = new ConcurrentHashMap<>();
+
+    void add(final S subscriber, final SubscriptionFilter filter) {
+        if (filter.getAchievementId() != null) {
+            add(byAchievement, filter.getAchievementId(), subscriber);
+        } else if (filter.getEvent() != null) {
+            add(byEvent, filter.getEvent(), subscriber);
+        } else if (filter.getOwner() != null) {
+            add(byOwner, filter.getOwner(), subscriber);
+        } else if (filter.getCategory() != null) {
+            add(byCategory, filter.getCategory(), subscriber);
+        } else {
+            unfiltered.add(subscriber);
+        }
+    }
+
+    /**
+     * Stores the subscriber under the given achievement id regardless of its filter.
+     */
+    void addByAchievement(final S subscriber, final String achievementId) {
+        add(byAchievement, achievementId, subscriber);
+    }
+
+    void removeByAchievement(final S subscriber, final String achievementId) {
+        remove(byAchievement, achievementId, subscriber);
+    }
+
+    private void add(final ConcurrentMap<String, Collection<S>> index, final String key, final S subscriber) {
+        index.compute(key, (bucketKey, bucket) -> {
+            final Collection<S> subscribers = bucket != null ? bucket : new CopyOnWriteArrayList<>();
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+    }
+
+    void remove(final S subscriber, final SubscriptionFilter filter) {
+        if (filter.getAchievementId() != null) {
+            remove(byAchievement, filter.getAchievementId(), subscriber);
+        } else if (filter.getEvent() != null) {
+            remove(byEvent, filter.getEvent(), subscriber);
+        } else if (filter.getOwner() != null) {
+            remove(byOwner, filter.getOwner(), subscriber);
+        } else if (filter.getCategory() != null) {
+            remove(byCategory, filter.getCategory(), subscriber);
+        } else {
+            unfiltered.remove(subscriber);
+        }
+    }
+
+    private void remove(final ConcurrentMap<String, Collection<S>> index, final String key, final S subscriber) {
+        index.computeIfPresent(key, (bucketKey, bucket) -> {
+            bucket.remove(subscriber);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    void clear() {
+        unfiltered.clear();
+        byAchievement.clear();
+        byEvent.clear();
+        byOwner.clear();
+        byCategory.clear();
+    }
+
+    /**
+     * Visits the subscribers which may match an event with the given values. Values which the event does not have are
+     * {@code null}. The filters of the candidates still have to be checked.
+     */
+    void forEachCandidate(final String owner, final String event, final String achievementId, final String category, final Consumer<S> action) {
+        unfiltered.forEach(action);
+        forEach(byAchievement, achievementId, action);
+        forEach(byEvent, event, action);
+        forEach(byOwner, owner, action);
+        forEach(byCategory, category, action);
+    }
+
+    private void forEach(final ConcurrentMap<String, Collection<S>> index, final String key, final Consumer<S> action) {
+        if (key != null) {
+            final Collection<S> bucket = index.get(key);
+            if (bucket != null) {
+                bucket.forEach(action);
+            }
+        }
+    }
+}
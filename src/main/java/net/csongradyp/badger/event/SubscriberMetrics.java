@@ -0,0 +1,32 @@
+package net.csongradyp.badger.event;
+
+/**
+ * Queue metrics of an asynchronous subscriber.
+ */
+public interface SubscriberMetrics {
+
+    /**
+     * @return number of events waiting for the subscriber.
+     */
+    int getQueueDepth();
+
+    /**
+     * @return milliseconds the oldest waiting event has been queued for, {@code 0} if the queue is empty.
+     */
+    long getLagMillis();
+
+    /**
+     * @return number of events handed to the subscriber.
+     */
+    long getDeliveredCount();
+
+    /**
+     * @return number of events dropped by {@link OverflowPolicy#DROP_OLDEST}.
+     */
+    long getDroppedCount();
+
+    /**
+     * @return number of queued events replaced by a newer one by {@link OverflowPolicy#COALESCE}.
+     */
+    long getCoalescedCount();
+}
@@ -0,0 +1,221 @@
+package net.csongradyp.badger.event;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of a single asynchronous subscriber with its own delivery thread, so a slow handler only delays its
+ * own events and never the triggering thread. Events are delivered one by one in publication order. When the queue is
+ * full the {@link OverflowPolicy} of the subscriber decides what happens with the new event.
+ *
+ * @param <E> type of the delivered events.
+ */
+public class SubscriberQueue<E> implements SubscriberMetrics, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SubscriberQueue.class);
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Consumer<E> handler;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Function<E, Object> coalesceKey;
+    private final Deque<Entry<E>> queue = new ArrayDeque<>();
+    private final Map<Object, Entry<E>> queuedByKey = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private long delivered;
+    private long dropped;
+    private long coalesced;
+    private boolean closed;
+
+    /**
+     * @param handler        receives the events on the delivery thread.
+     * @param capacity       maximum number of queued events.
+     * @param overflowPolicy behaviour when the queue is full.
+     * @param coalesceKey    key of the events which replace each other by {@link OverflowPolicy#COALESCE}.
+     */
+    public SubscriberQueue(final Consumer<E> handler, final int capacity, final OverflowPolicy overflowPolicy, final Function<E, Object> coalesceKey) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.handler = handler;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.coalesceKey = coalesceKey;
+        final Thread worker = new Thread(this::deliver, "badger-subscriber-" + THREAD_COUNTER.getAndIncrement());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues the event for delivery. Events published after {@link #close()} are ignored.
+     */
+    public void offer(final E event) {
+        lock.lock();
+        try {
+            if (overflowPolicy == OverflowPolicy.COALESCE) {
+                final Object key = coalesceKey.apply(event);
+                final Entry<E> queued = queuedByKey.get(key);
+                if (queued != null) {
+                    queued.event = event;
+                    coalesced++;
+                    return;
+                }
+                if (awaitSpace()) {
+                    queuedByKey.put(key, enqueue(event));
+                }
+            } else if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                if (!closed) {
+                    if (queue.size() == capacity) {
+                        queue.poll();
+                        dropped++;
+                    }
+                    enqueue(event);
+                }
+            } else if (awaitSpace()) {
+                enqueue(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code false} if the queue was closed while waiting.
+     */
+    private boolean awaitSpace() {
+        while (!closed && queue.size() == capacity) {
+            notFull.awaitUninterruptibly();
+        }
+        return !closed;
+    }
+
+    private Entry<E> enqueue(final E event) {
+        final Entry<E> entry = new Entry<>(event, System.nanoTime());
+        queue.add(entry);
+        notEmpty.signal();
+        return entry;
+    }
+
+    private void deliver() {
+        Entry<E> entry = take();
+        while (entry != null) {
+            try {
+                handler.accept(entry.event);
+            } catch (RuntimeException e) {
+                LOG.warn("Event handler failed on " + entry.event, e);
+            }
+            entry = take();
+        }
+    }
+
+    /**
+     * @return the next event or {@code null} if the queue is closed and every queued event is delivered.
+     */
+    private Entry<E> take() {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !closed) {
+                notEmpty.awaitUninterruptibly();
+            }
+            final Entry<E> entry = queue.poll();
+            if (entry != null) {
+                if (overflowPolicy == OverflowPolicy.COALESCE) {
+                    queuedByKey.remove(coalesceKey.apply(entry.event));
+                }
+                delivered++;
+                notFull.signal();
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting events. Events already queued are still delivered.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getLagMillis() {
+        lock.lock();
+        try {
+            final Entry<E> oldest = queue.peek();
+            return oldest == null ? 0 : (System.nanoTime() - oldest.queuedAt) / 1_000_000;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        lock.lock();
+        try {
+            return delivered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        lock.lock();
+        try {
+            return coalesced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry<E> {
+
+        private E event;
+        private final long queuedAt;
+
+        private Entry(final E event, final long queuedAt) {
+            this.event = event;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
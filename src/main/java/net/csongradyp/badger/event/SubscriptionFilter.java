@@ -0,0 +1,120 @@
+package net.csongradyp.badger.event;
+
+import java.util.Objects;
+import net.csongradyp.badger.event.message.ScoreUpdatedEvent;
+
+/**
+ * Immutable filter of a subscription. Every key which is set has to match the published event, keys left unset match
+ * any value. Unlock events can be filtered by owner, event name, achievement id and category, score update events by
+ * owner and event name. An event name matches the unlocks of the achievements subscribed to the event. Subscribers are indexed by their filter, so publishing only visits the subscribers which can match.
+ * <pre>
+ *     SubscriptionFilter.all().owner("player1").event("kill")
+ * </pre>
+ */
+public final class SubscriptionFilter {
+
+    private static final SubscriptionFilter ALL = new SubscriptionFilter(null, null, null, null);
+
+    private final String owner;
+    private final String event;
+    private final String achievementId;
+    private final String category;
+
+    private SubscriptionFilter(final String owner, final String event, final String achievementId, final String category) {
+        this.owner = owner;
+        this.event = event;
+        this.achievementId = achievementId;
+        this.category = category;
+    }
+
+    /**
+     * @return filter matching every event.
+     */
+    public static SubscriptionFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @return copy of the filter which only matches the events of the given owner.
+     */
+    public SubscriptionFilter owner(final String owner) {
+        return new SubscriptionFilter(owner, event, achievementId, category);
+    }
+
+    /**
+     * @return copy of the filter which only matches the score updates of the given event and the unlocks of the
+     * achievements subscribed to it.
+     */
+    public SubscriptionFilter event(final String event) {
+        return new SubscriptionFilter(owner, event, achievementId, category);
+    }
+
+    /**
+     * @return copy of the filter which only matches the unlocks of the given achievement.
+     */
+    public SubscriptionFilter achievement(final String achievementId) {
+        return new SubscriptionFilter(owner, event, achievementId, category);
+    }
+
+    /**
+     * @return copy of the filter which only matches the unlocks of the achievements in the given category.
+     */
+    public SubscriptionFilter category(final String category) {
+        return new SubscriptionFilter(owner, event, achievementId, category);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public String getAchievementId() {
+        return achievementId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Checks every key except the event name, which the {@link EventBus} resolves to the achievements subscribed to the event.
+     */
+    public boolean matches(final IAchievementUnlockedEvent unlockedEvent) {
+        return matches(owner, unlockedEvent.getOwner()) && matches(achievementId, unlockedEvent.getId())
+                && matches(category, unlockedEvent.getCategory());
+    }
+
+    public boolean matches(final ScoreUpdatedEvent scoreUpdatedEvent) {
+        return matches(owner, scoreUpdatedEvent.getOwner()) && matches(event, scoreUpdatedEvent.getEvent());
+    }
+
+    private static boolean matches(final String expected, final String actual) {
+        return expected == null || expected.equals(actual);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        final SubscriptionFilter that = (SubscriptionFilter) other;
+        return Objects.equals(owner, that.owner) && Objects.equals(event, that.event)
+                && Objects.equals(achievementId, that.achievementId) && Objects.equals(category, that.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(owner, event, achievementId, category);
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionFilter{owner=" + owner + ", event=" + event + ", achievementId=" + achievementId + ", category=" + category + '}';
+    }
+}
@@ -0,0 +1,170 @@
+package net.csongradyp.badger.event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects unlocked achievement events into batches for an {@link IAchievementUnlockedBatchHandler}. A batch is
+ * delivered when it reaches the maximum size or when its first event has waited for the linger time. Batches are
+ * delivered one by one on a separate thread through a bounded queue, whose overflow policy decides what happens
+ * when the batch handler falls behind. Completed batches are queued after releasing the monitor of the batcher, so
+ * a publisher waiting for queue space never blocks the others.
+ */
+public class UnlockedEventBatcher implements IAchievementUnlockedHandler, AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final IAchievementUnlockedBatchHandler batchHandler;
+    private final BatchGrouping grouping;
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final Map<String, List<IAchievementUnlockedEvent>> batches = new HashMap<>();
+    private final SubscriberQueue<List<IAchievementUnlockedEvent>> deliveryQueue;
+    private final ScheduledExecutorService lingerTimer;
+    private int offering;
+    private boolean closed;
+
+    /**
+     * @param batchHandler receives the batches.
+     * @param grouping     grouping of the events into batches.
+     * @param maxBatchSize maximum number of events in a batch.
+     * @param lingerMillis maximum time an event waits for its batch to fill up.
+     */
+    public UnlockedEventBatcher(final IAchievementUnlockedBatchHandler batchHandler, final BatchGrouping grouping, final int maxBatchSize,
+                                final long lingerMillis) {
+        this(batchHandler, grouping, maxBatchSize, lingerMillis, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param batchHandler   receives the batches.
+     * @param grouping       grouping of the events into batches.
+     * @param maxBatchSize   maximum number of events in a batch.
+     * @param lingerMillis   maximum time an event waits for its batch to fill up.
+     * @param queueCapacity  maximum number of batches waiting for the batch handler.
+     * @param overflowPolicy behaviour when the queue of batches is full. Batches can not be coalesced.
+     */
+    public UnlockedEventBatcher(final IAchievementUnlockedBatchHandler batchHandler, final BatchGrouping grouping, final int maxBatchSize,
+                                final long lingerMillis, final int queueCapacity, final OverflowPolicy overflowPolicy) {
+        if (maxBatchSize < 1 || lingerMillis < 0) {
+            throw new IllegalArgumentException("Batch size must be positive and linger time must not be negative");
+        }
+        if (overflowPolicy == OverflowPolicy.COALESCE) {
+            throw new IllegalArgumentException("Unlocked event batches can not be coalesced");
+        }
+        this.batchHandler = batchHandler;
+        this.grouping = grouping;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        deliveryQueue = new SubscriberQueue<>(batchHandler::onUnlockedBatch, queueCapacity, overflowPolicy, null);
+        lingerTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "badger-unlock-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onUnlocked(final IAchievementUnlockedEvent achievementUnlockedEvent) {
+        final List<IAchievementUnlockedEvent> completed = add(achievementUnlockedEvent);
+        if (completed != null) {
+            offer(completed);
+        }
+    }
+
+    private void offer(final List<IAchievementUnlockedEvent> batch) {
+        try {
+            deliveryQueue.offer(batch);
+        } finally {
+            offered();
+        }
+    }
+
+    private synchronized void offered() {
+        if (--offering == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return the batch completed by the event or {@code null} if its batch is not full yet.
+     */
+    private synchronized List<IAchievementUnlockedEvent> add(final IAchievementUnlockedEvent achievementUnlockedEvent) {
+        if (closed) {
+            return null;
+        }
+        final String key = grouping == BatchGrouping.OWNER ? achievementUnlockedEvent.getOwner() : null;
+        List<IAchievementUnlockedEvent> batch = batches.get(key);
+        if (batch == null) {
+            batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+            batches.put(key, batch);
+            final List<IAchievementUnlockedEvent> started = batch;
+            lingerTimer.schedule(() -> deliverLingering(key, started), lingerMillis, TimeUnit.MILLISECONDS);
+        }
+        batch.add(achievementUnlockedEvent);
+        if (batch.size() >= maxBatchSize) {
+            batches.remove(key);
+            offering++;
+            return batch;
+        }
+        return null;
+    }
+
+    private void deliverLingering(final String key, final List<IAchievementUnlockedEvent> batch) {
+        if (removeLingering(key, batch)) {
+            offer(batch);
+        }
+    }
+
+    private synchronized boolean removeLingering(final String key, final List<IAchievementUnlockedEvent> batch) {
+        if (batches.get(key) != batch) {
+            return false;
+        }
+        batches.remove(key);
+        offering++;
+        return true;
+    }
+
+    public IAchievementUnlockedBatchHandler getBatchHandler() {
+        return batchHandler;
+    }
+
+    /**
+     * @return metrics of the queue of batches waiting for the batch handler.
+     */
+    public SubscriberMetrics getMetrics() {
+        return deliveryQueue;
+    }
+
+    /**
+     * Delivers the pending batches without waiting for their linger time and stops the delivery after them and the
+     * batches being queued by other threads.
+     */
+    @Override
+    public void close() {
+        lingerTimer.shutdownNow();
+        final List<List<IAchievementUnlockedEvent>> pending;
+        synchronized (this) {
+            closed = true;
+            pending = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        pending.forEach(deliveryQueue::offer);
+        awaitOffers();
+        deliveryQueue.close();
+    }
+
+    private synchronized void awaitOffers() {
+        try {
+            while (offering > 0) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
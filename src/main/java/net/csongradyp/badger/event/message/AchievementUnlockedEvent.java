@@ -1,6 +1,7 @@
 package net.csongradyp.badger.event.message;
 
 import java.util.Date;
+import java.util.Locale;
 import net.csongradyp.badger.event.AchievementEventType;
 import net.csongradyp.badger.event.IAchievementUnlockedEvent;
 
@@ -11,6 +12,8 @@ public class AchievementUnlockedEvent implements IAchievementUnlockedEvent {
     private final String text;
     private final Date acquireDate;
     private final String triggerValue;
+    private final UnlockMessages messages;
+    private final int messageIndex;
     private String category;
     private Integer level;
     private AchievementEventType eventType;
@@ -26,6 +29,28 @@ public class AchievementUnlockedEvent implements IAchievementUnlockedEvent {
         this.level = 1;
         eventType = AchievementEventType.UNLOCK;
         category = "default";
+        messages = null;
+        messageIndex = -1;
+    }
+
+    /**
+     * Creates an event which resolves its title and description from the precomputed message tables when they are read.
+     *
+     * @param messages     message tables of the achievement definition.
+     * @param messageIndex index of the achievement in the message tables.
+     */
+    public AchievementUnlockedEvent(final String owner, final String id, final UnlockMessages messages, final int messageIndex, final String triggerValue) {
+        this.owner = owner;
+        this.id = id;
+        this.title = null;
+        this.text = null;
+        this.acquireDate = new Date();
+        this.triggerValue = triggerValue;
+        this.level = 1;
+        eventType = AchievementEventType.UNLOCK;
+        category = "default";
+        this.messages = messages;
+        this.messageIndex = messageIndex;
     }
 
     /**
@@ -56,7 +81,18 @@ public class AchievementUnlockedEvent implements IAchievementUnlockedEvent {
      */
     @Override
     public String getTitle() {
-        return title;
+        return messages != null ? messages.getTitle(messageIndex, null) : title;
+    }
+
+    /**
+     * Returns the title of the achievement in the given locale. Locales without precomputed messages fall back to the
+     * default locale.
+     *
+     * @return Localized message or the i18n key of the achievement title.
+     */
+    @Override
+    public String getTitle(final Locale locale) {
+        return messages != null ? messages.getTitle(messageIndex, locale) : title;
     }
 
     /**
@@ -67,7 +103,18 @@ public class AchievementUnlockedEvent implements IAchievementUnlockedEvent {
      */
     @Override
     public String getText() {
-        return text;
+        return messages != null ? messages.getText(messageIndex, null) : text;
+    }
+
+    /**
+     * Returns the description of the achievement in the given locale. Locales without precomputed messages fall back
+     * to the default locale.
+     *
+     * @return Localized message or the i18n key of the achievement description.
+     */
+    @Override
+    public String getText(final Locale locale) {
+        return messages != null ? messages.getText(messageIndex, locale) : text;
     }
 
     /**
@@ -101,13 +148,14 @@ public class AchievementUnlockedEvent implements IAchievementUnlockedEvent {
     }
 
     /**
-     * Sets the unlocked level of the achievement.
+     * Sets the unlocked level of the achievement. Levels above the first one are reported as {@link AchievementEventType#LEVEL_UP}.
      *
      * @param level new acquired level.
      */
     @Override
     public void setLevel(final Integer level) {
         this.level = level;
+        eventType = level > 1 ? AchievementEventType.LEVEL_UP : AchievementEventType.UNLOCK;
     }
 
     /**
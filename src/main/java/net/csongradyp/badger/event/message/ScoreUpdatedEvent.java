@@ -5,18 +5,38 @@ package net.csongradyp.badger.event.message;
  */
 public class ScoreUpdatedEvent {
 
-    private String event;
-    private Long value;
+    private final String owner;
+    private final String event;
+    private final long value;
 
     /**
      * @param event Name of the triggered event.
      * @param value New value of event trigger.
      */
     public ScoreUpdatedEvent(final String event, final Long value) {
+        this(null, event, value);
+    }
+
+    /**
+     * @param owner Owner of the updated event counter/score.
+     * @param event Name of the triggered event.
+     * @param value New value of event trigger.
+     */
+    public ScoreUpdatedEvent(final String owner, final String event, final long value) {
+        this.owner = owner;
         this.event = event;
         this.value = value;
     }
 
+    /**
+     * Returns the owner of the updated event counter/score.
+     *
+     * @return Owner of the event counter/score.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
     /**
      * Returns the name of the event which was triggered.
      *
@@ -34,4 +54,13 @@ public class ScoreUpdatedEvent {
     public Long getValue() {
         return value;
     }
+
+    /**
+     * Returns the new value of the event counter/score without boxing.
+     *
+     * @return new value of event counter/score after triggered.
+     */
+    public long getScore() {
+        return value;
+    }
 }
@@ -0,0 +1,145 @@
+package net.csongradyp.badger.event.message;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ResourceBundle;
+import net.csongradyp.badger.AchievementDefinition;
+import net.csongradyp.badger.domain.achievement.IAchievement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable tables of the localized titles and descriptions of every achievement of a definition, indexed by the
+ * achievement index, for every configured locale. The tables are filled from the resource bundles when they are built,
+ * so resolving a message is an array lookup without formatting or bundle lookups. Messages missing from a bundle and
+ * locales without a table fall back to the default locale and then to the i18n keys of the achievement.
+ */
+public final class UnlockMessages {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UnlockMessages.class);
+
+    private final AchievementDefinition achievementDefinition;
+    private final Locale defaultLocale;
+    private final String[] titleKeys;
+    private final String[] textKeys;
+    private final Map<Locale, Table> tables;
+    private final Map<String, Table> tablesByLanguage;
+    private final Table defaultTable;
+
+    private UnlockMessages(final AchievementDefinition achievementDefinition, final Map<Locale, ResourceBundle> bundles, final Locale defaultLocale) {
+        this.achievementDefinition = achievementDefinition;
+        this.defaultLocale = defaultLocale;
+        final int achievementCount = achievementDefinition.getAchievementCount();
+        titleKeys = new String[achievementCount];
+        textKeys = new String[achievementCount];
+        for (int i = 0; i < achievementCount; i++) {
+            final IAchievement achievement = achievementDefinition.getAchievement(i);
+            titleKeys[i] = achievement.getTitleKey();
+            textKeys[i] = achievement.getTextKey();
+        }
+        final Table keyTable = new Table(titleKeys, textKeys);
+        final Map<Locale, Table> localeTables = new HashMap<>();
+        final Map<String, Table> languageTables = new HashMap<>();
+        bundles.forEach((locale, bundle) -> {
+            final Table table = new Table(localize(bundle, titleKeys), localize(bundle, textKeys));
+            final long missing = table.countMissing();
+            if (missing > 0) {
+                LOG.warn("{} achievement messages are missing for locale {}", missing, locale);
+            }
+            localeTables.put(locale, table);
+            languageTables.putIfAbsent(locale.getLanguage(), table);
+        });
+        final Table defaultLocaleTable = localeTables.get(defaultLocale);
+        defaultTable = defaultLocaleTable != null ? defaultLocaleTable : keyTable;
+        tables = Collections.unmodifiableMap(localeTables);
+        tablesByLanguage = Collections.unmodifiableMap(languageTables);
+    }
+
+    /**
+     * @return messages of the definition which resolve to the i18n keys of the achievements.
+     */
+    public static UnlockMessages of(final AchievementDefinition achievementDefinition) {
+        return new UnlockMessages(achievementDefinition, Collections.emptyMap(), Locale.ENGLISH);
+    }
+
+    /**
+     * @param achievementDefinition achievements to build the tables for.
+     * @param bundles               resource bundle of every configured locale.
+     * @param defaultLocale         locale of the messages when no locale is requested.
+     */
+    public static UnlockMessages of(final AchievementDefinition achievementDefinition, final Map<Locale, ResourceBundle> bundles, final Locale defaultLocale) {
+        return new UnlockMessages(achievementDefinition, bundles, defaultLocale);
+    }
+
+    private static String[] localize(final ResourceBundle bundle, final String[] keys) {
+        final String[] messages = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (bundle.containsKey(keys[i])) {
+                messages[i] = bundle.getString(keys[i]);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * @return index of the messages of the achievement or {@code -1} if the achievement is not part of the tables.
+     */
+    public int indexOf(final String achievementId) {
+        return achievementDefinition.getAchievementIndex(achievementId);
+    }
+
+    public String getTitle(final int index, final Locale locale) {
+        return resolve(tableOf(locale).titles, defaultTable.titles, titleKeys, index);
+    }
+
+    public String getText(final int index, final Locale locale) {
+        return resolve(tableOf(locale).texts, defaultTable.texts, textKeys, index);
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    public AchievementDefinition getAchievementDefinition() {
+        return achievementDefinition;
+    }
+
+    private Table tableOf(final Locale locale) {
+        if (locale == null) {
+            return defaultTable;
+        }
+        Table table = tables.get(locale);
+        if (table == null) {
+            table = tablesByLanguage.get(locale.getLanguage());
+        }
+        return table != null ? table : defaultTable;
+    }
+
+    private static String resolve(final String[] messages, final String[] defaultMessages, final String[] keys, final int index) {
+        final String message = messages[index];
+        if (message != null) {
+            return message;
+        }
+        final String defaultMessage = defaultMessages[index];
+        return defaultMessage != null ? defaultMessage : keys[index];
+    }
+
+    private static final class Table {
+
+        private final String[] titles;
+        private final String[] texts;
+
+        private Table(final String[] titles, final String[] texts) {
+            this.titles = titles;
+            this.texts = texts;
+        }
+
+        private long countMissing() {
+            return Arrays.stream(titles).filter(Objects::isNull).count() + Arrays.stream(texts).filter(Objects::isNull).count();
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package net.csongradyp.badger.event.wrapper;
 
+import java.util.Optional;
 import net.csongradyp.badger.event.IAchievementUnlockedEvent;
 import net.csongradyp.badger.event.IAchievementUnlockedHandler;
+import net.csongradyp.badger.event.OverflowPolicy;
+import net.csongradyp.badger.event.SubscriberMetrics;
+import net.csongradyp.badger.event.SubscriberQueue;
+import net.csongradyp.badger.event.SubscriptionFilter;
+import net.csongradyp.badger.event.UnlockedEventBatcher;
 import net.engio.mbassy.listener.Handler;
 import net.engio.mbassy.listener.Listener;
 import net.engio.mbassy.listener.References;
@@ -13,15 +19,43 @@ import net.engio.mbassy.listener.References;
 public class AchievementUnlockedHandlerWrapper implements IAchievementUnlockedHandler {
 
     private final IAchievementUnlockedHandler wrapped;
+    private final SubscriptionFilter filter;
+    private final SubscriberQueue<IAchievementUnlockedEvent> queue;
 
     public AchievementUnlockedHandlerWrapper(final IAchievementUnlockedHandler wrapped) {
+        this(wrapped, SubscriptionFilter.all());
+    }
+
+    /**
+     * @param filter events the handler is subscribed to.
+     */
+    public AchievementUnlockedHandlerWrapper(final IAchievementUnlockedHandler wrapped, final SubscriptionFilter filter) {
+        this.wrapped = wrapped;
+        this.filter = filter;
+        queue = null;
+    }
+
+    /**
+     * Wraps the handler for asynchronous delivery through its own bounded queue.
+     *
+     * @param filter         events the handler is subscribed to.
+     * @param queueCapacity  maximum number of events waiting for the handler.
+     * @param overflowPolicy behaviour when the queue is full.
+     */
+    public AchievementUnlockedHandlerWrapper(final IAchievementUnlockedHandler wrapped, final SubscriptionFilter filter, final int queueCapacity, final OverflowPolicy overflowPolicy) {
         this.wrapped = wrapped;
+        this.filter = filter;
+        queue = new SubscriberQueue<>(wrapped::onUnlocked, queueCapacity, overflowPolicy, event -> event.getOwner() + "/" + event.getId() + "/" + event.getLevel());
     }
 
     @Override
     @Handler(rejectSubtypes = true)
     public void onUnlocked(final IAchievementUnlockedEvent achievementUnlockedEvent) {
-        wrapped.onUnlocked(achievementUnlockedEvent);
+        if (queue == null) {
+            wrapped.onUnlocked(achievementUnlockedEvent);
+        } else {
+            queue.offer(achievementUnlockedEvent);
+        }
     }
 
     /**
@@ -32,4 +66,27 @@ public class AchievementUnlockedHandlerWrapper implements IAchievementUnlockedHa
     public IAchievementUnlockedHandler getWrapped() {
         return wrapped;
     }
+
+    public SubscriptionFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return queue metrics of an asynchronous handler, empty for handlers called on the publishing thread.
+     */
+    public Optional<SubscriberMetrics> getMetrics() {
+        return Optional.ofNullable(queue);
+    }
+
+    /**
+     * Stops the asynchronous or batched delivery after the queued events.
+     */
+    public void close() {
+        if (queue != null) {
+            queue.close();
+        }
+        if (wrapped instanceof UnlockedEventBatcher) {
+            ((UnlockedEventBatcher) wrapped).close();
+        }
+    }
 }
@@ -1,6 +1,11 @@
 package net.csongradyp.badger.event.wrapper;
 
+import java.util.Optional;
 import net.csongradyp.badger.event.IScoreUpdateHandler;
+import net.csongradyp.badger.event.OverflowPolicy;
+import net.csongradyp.badger.event.SubscriberMetrics;
+import net.csongradyp.badger.event.SubscriberQueue;
+import net.csongradyp.badger.event.SubscriptionFilter;
 import net.csongradyp.badger.event.message.ScoreUpdatedEvent;
 import net.engio.mbassy.listener.Handler;
 import net.engio.mbassy.listener.Listener;
@@ -13,15 +18,43 @@ import net.engio.mbassy.listener.References;
 public class ScoreUpdateHandlerWrapper implements IScoreUpdateHandler {
 
     private final IScoreUpdateHandler wrapped;
+    private final SubscriptionFilter filter;
+    private final SubscriberQueue<ScoreUpdatedEvent> queue;
 
     public ScoreUpdateHandlerWrapper(final IScoreUpdateHandler wrapped) {
+        this(wrapped, SubscriptionFilter.all());
+    }
+
+    /**
+     * @param filter events the handler is subscribed to.
+     */
+    public ScoreUpdateHandlerWrapper(final IScoreUpdateHandler wrapped, final SubscriptionFilter filter) {
+        this.wrapped = wrapped;
+        this.filter = filter;
+        queue = null;
+    }
+
+    /**
+     * Wraps the handler for asynchronous delivery through its own bounded queue.
+     *
+     * @param filter         events the handler is subscribed to.
+     * @param queueCapacity  maximum number of events waiting for the handler.
+     * @param overflowPolicy behaviour when the queue is full.
+     */
+    public ScoreUpdateHandlerWrapper(final IScoreUpdateHandler wrapped, final SubscriptionFilter filter, final int queueCapacity, final OverflowPolicy overflowPolicy) {
         this.wrapped = wrapped;
+        this.filter = filter;
+        queue = new SubscriberQueue<>(wrapped::onUpdate, queueCapacity, overflowPolicy, event -> event.getOwner() + "/" + event.getEvent());
     }
 
     @Override
     @Handler(rejectSubtypes = true)
     public void onUpdate(final ScoreUpdatedEvent scoreUpdatedEvent) {
-        wrapped.onUpdate(scoreUpdatedEvent);
+        if (queue == null) {
+            wrapped.onUpdate(scoreUpdatedEvent);
+        } else {
+            queue.offer(scoreUpdatedEvent);
+        }
     }
 
     /**
@@ -32,4 +65,24 @@ public class ScoreUpdateHandlerWrapper implements IScoreUpdateHandler {
     public IScoreUpdateHandler getWrapped() {
         return wrapped;
     }
+
+    public SubscriptionFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return queue metrics of an asynchronous handler, empty for handlers called on the publishing thread.
+     */
+    public Optional<SubscriberMetrics> getMetrics() {
+        return Optional.ofNullable(queue);
+    }
+
+    /**
+     * Stops the asynchronous delivery after the queued events.
+     */
+    public void close() {
+        if (queue != null) {
+            queue.close();
+        }
+    }
 }
@@ -0,0 +1,8 @@
+package net.csongradyp.badger.exception;
+
+public class EventNotFoundException extends RuntimeException {
+
+    public EventNotFoundException(final String event) {
+        super("Event is not declared in the achievement definition: " + event);
+    }
+}
@@ -2,8 +2,23 @@ package net.csongradyp.badger.exception;
 
 public class MalformedAchievementRelationDefinition extends RuntimeException {
 
+    private final int position;
+
     public MalformedAchievementRelationDefinition( final String message ) {
         super(message);
+        position = -1;
+    }
+
+    public MalformedAchievementRelationDefinition(final String message, final int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    /**
+     * @return character position of the error in the relation expression or {@code -1} if it is unknown.
+     */
+    public int getPosition() {
+        return position;
     }
 
 }
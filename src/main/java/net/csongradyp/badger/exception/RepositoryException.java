@@ -0,0 +1,12 @@
+package net.csongradyp.badger.exception;
+
+public class RepositoryException extends RuntimeException {
+
+    public RepositoryException(final String message) {
+        super(message);
+    }
+
+    public RepositoryException(final String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,24 +1,39 @@
 package net.csongradyp.badger.factory;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 import javax.inject.Named;
+import net.csongradyp.badger.AchievementDefinition;
 import net.csongradyp.badger.domain.IAchievementBean;
 import net.csongradyp.badger.domain.achievement.IAchievement;
 import net.csongradyp.badger.event.message.AchievementUnlockedEvent;
+import net.csongradyp.badger.event.message.UnlockMessages;
+import net.csongradyp.badger.provider.UnlockCandidate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Creates the unlocked achievement events. Titles and descriptions are precomputed into {@link UnlockMessages} tables
+ * whenever the achievement definition or the resource bundles change, so creating an event does no bundle lookups and
+ * the events resolve their messages in any configured locale when they are read.
+ */
 @Named
 public class UnlockedEventFactory {
 
     private static final Logger LOG = LoggerFactory.getLogger(UnlockedEventFactory.class);
 
-    private ResourceBundle resourceBundle;
+    private AchievementDefinition achievementDefinition = new AchievementDefinition();
+    private Map<Locale, ResourceBundle> resourceBundles = Collections.emptyMap();
+    private Locale defaultLocale = Locale.ENGLISH;
+    private volatile UnlockMessages messages = UnlockMessages.of(achievementDefinition);
 
     public AchievementUnlockedEvent createEvent(final String userId, final IAchievementBean achievementBean, final Integer level, final Long triggeredValue) {
         final AchievementUnlockedEvent achievementUnlockedEvent = createEvent(userId, achievementBean, String.valueOf(triggeredValue));
         achievementUnlockedEvent.setLevel(level);
-        LOG.info("Achievement created with id: {} level: {}", achievementBean.getId(), level);
+        LOG.debug("Achievement created with id: {} level: {}", achievementBean.getId(), level);
         return achievementUnlockedEvent;
     }
 
@@ -27,23 +42,73 @@ public class UnlockedEventFactory {
     }
 
     public AchievementUnlockedEvent createEvent(final String userId, final IAchievement achievementBean, final String triggeredValue) {
-        final String title;
-        final String text;
-        if (resourceBundle != null) {
-            title = resourceBundle.getString(achievementBean.getTitleKey());
-            text = resourceBundle.getString(achievementBean.getTextKey());
+        final UnlockMessages currentMessages = messages;
+        final int messageIndex = currentMessages.indexOf(achievementBean.getId());
+        final AchievementUnlockedEvent unlockedEvent;
+        if (messageIndex >= 0) {
+            unlockedEvent = new AchievementUnlockedEvent(userId, achievementBean.getId(), currentMessages, messageIndex, triggeredValue);
         } else {
-            title = achievementBean.getTitleKey();
-            text = achievementBean.getTextKey();
+            unlockedEvent = new AchievementUnlockedEvent(userId, achievementBean.getId(), achievementBean.getTitleKey(), achievementBean.getTextKey(), triggeredValue);
         }
-        LOG.info("Achievement created with id: {}", achievementBean.getId());
-        final AchievementUnlockedEvent unlockedEvent = new AchievementUnlockedEvent(userId, achievementBean.getId(), title, text, triggeredValue);
+        LOG.debug("Achievement created with id: {}", achievementBean.getId());
         unlockedEvent.setCategory(achievementBean.getCategory());
         return unlockedEvent;
     }
 
-    public void setResourceBundle(final ResourceBundle resourceBundle) {
-        this.resourceBundle = resourceBundle;
+    /**
+     * Creates the event of an unlocked candidate. The candidate index addresses the message tables directly when they
+     * were built for the same definition snapshot.
+     *
+     * @param achievementDefinition definition snapshot the candidate was found in.
+     */
+    public AchievementUnlockedEvent createEvent(final String userId, final AchievementDefinition achievementDefinition, final UnlockCandidate candidate) {
+        final IAchievement achievement = achievementDefinition.getAchievement(candidate.getAchievementIndex());
+        final UnlockMessages currentMessages = messages;
+        final AchievementUnlockedEvent unlockedEvent;
+        if (currentMessages.getAchievementDefinition() == achievementDefinition) {
+            unlockedEvent = new AchievementUnlockedEvent(userId, achievement.getId(), currentMessages, candidate.getAchievementIndex(), candidate.getTriggerValue());
+            unlockedEvent.setCategory(achievement.getCategory());
+        } else {
+            unlockedEvent = createEvent(userId, achievement, candidate.getTriggerValue());
+        }
+        unlockedEvent.setLevel(candidate.getLevel());
+        LOG.debug("Achievement created with id: {} level: {}", achievement.getId(), candidate.getLevel());
+        return unlockedEvent;
+    }
+
+    /**
+     * Rebuilds the message tables for the achievements of the definition.
+     */
+    public synchronized void setAchievementDefinition(final AchievementDefinition achievementDefinition) {
+        this.achievementDefinition = achievementDefinition;
+        rebuildMessages();
+    }
+
+    /**
+     * Uses the bundle for the messages of the default locale. Without a bundle the messages resolve to the i18n keys.
+     */
+    public synchronized void setResourceBundle(final ResourceBundle resourceBundle) {
+        resourceBundles = resourceBundle != null ? Collections.singletonMap(defaultLocale, resourceBundle) : Collections.emptyMap();
+        rebuildMessages();
+    }
+
+    /**
+     * Precomputes the messages of every given locale.
+     *
+     * @param resourceBundles resource bundle of every locale the messages are needed in.
+     * @param defaultLocale   locale of the messages when no locale is requested.
+     */
+    public synchronized void setResourceBundles(final Map<Locale, ResourceBundle> resourceBundles, final Locale defaultLocale) {
+        this.resourceBundles = Collections.unmodifiableMap(new LinkedHashMap<>(resourceBundles));
+        this.defaultLocale = defaultLocale;
+        rebuildMessages();
     }
 
+    private void rebuildMessages() {
+        messages = UnlockMessages.of(achievementDefinition, resourceBundles, defaultLocale);
+    }
+
+    public UnlockMessages getMessages() {
+        return messages;
+    }
 }
@@ -0,0 +1,120 @@
+package net.csongradyp.badger.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import net.csongradyp.badger.AchievementDefinition;
+import net.csongradyp.badger.exception.MalformedAchievementDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the achievement definition file and loads it again on a background thread whenever it is modified or
+ * replaced. Bursts of file events are merged, so the file is only loaded once the writer has been quiet for a while.
+ * The loaded definition is handed to the listener only if loading succeeded, a broken file keeps the current one.
+ */
+public class DefinitionWatcher implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefinitionWatcher.class);
+
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final Path definitionFile;
+    private final Supplier<AchievementDefinition> loader;
+    private final Consumer<AchievementDefinition> listener;
+    private WatchService watchService;
+
+    /**
+     * @param definitionFile achievement definition file to watch.
+     * @param loader         loads the definition file.
+     * @param listener       receives every successfully reloaded definition.
+     */
+    public DefinitionWatcher(final File definitionFile, final Supplier<AchievementDefinition> loader, final Consumer<AchievementDefinition> listener) {
+        this.definitionFile = definitionFile.getAbsoluteFile().toPath();
+        this.loader = loader;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts watching the directory of the definition file on a daemon thread.
+     */
+    public synchronized void start() {
+        if (watchService != null) {
+            return;
+        }
+        final Path directory = definitionFile.getParent();
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new MalformedAchievementDefinition("Failed to watch achievement definition file " + definitionFile, e);
+        }
+        final WatchService service = watchService;
+        final Thread watcher = new Thread(() -> watch(service), "badger-definition-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOG.debug("Watching achievement definition file {}", definitionFile);
+    }
+
+    private void watch(final WatchService service) {
+        try {
+            while (true) {
+                boolean changed = isDefinitionChanged(service.take());
+                WatchKey key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    changed |= isDefinitionChanged(key);
+                    key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOG.debug("Stopped watching achievement definition file {}", definitionFile);
+        }
+    }
+
+    private boolean isDefinitionChanged(final WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || definitionFile.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        try {
+            final AchievementDefinition definition = loader.get();
+            listener.accept(definition);
+            LOG.info("Achievement definition reloaded from {}", definitionFile);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to reload achievement definition " + definitionFile + ", keeping the current one", e);
+        }
+    }
+
+    /**
+     * Stops watching the definition file. A reload already running is finished.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close watch service of " + definitionFile, e);
+            }
+            watchService = null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package net.csongradyp.badger.parser;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import net.csongradyp.badger.domain.AchievementType;
+import net.csongradyp.badger.domain.achievement.relation.Relation;
+import net.csongradyp.badger.domain.achievement.relation.RelationElement;
+import net.csongradyp.badger.domain.achievement.relation.RelationOperator;
+import net.csongradyp.badger.domain.achievement.trigger.ITrigger;
+import net.csongradyp.badger.exception.MalformedAchievementRelationDefinition;
+
+/**
+ * Single pass tokenizer and parser of relation expressions like {@code (score&time)|date}.
+ * The expression is read once from left to right, validated on the fly and nested groups are kept on an explicit stack,
+ * so parsing is linear in the length of the expression regardless of its nesting depth.
+ * Every error is reported with the character position of the offending token in the original expression.
+ * <p>
+ * Whitespace is ignored everywhere, type names are case insensitive and operators of a group may not be mixed.
+ * Every parenthesized group becomes a nested {@link Relation} and element types without triggers are left out of the tree.
+ */
+class RelationExpressionParser {
+
+    private static final Map<String, AchievementType> ELEMENT_TYPES = createElementTypes();
+
+    private final String expression;
+    private final Map<AchievementType, Collection<ITrigger>> triggersByType;
+    private int position;
+
+    /**
+     * @param expression     relation expression to parse.
+     * @param triggersByType triggers of the composite achievement grouped by their type.
+     */
+    RelationExpressionParser(final String expression, final Map<AchievementType, Collection<ITrigger>> triggersByType) {
+        this.expression = expression;
+        this.triggersByType = triggersByType;
+    }
+
+    private static Map<String, AchievementType> createElementTypes() {
+        final Map<String, AchievementType> elementTypes = new HashMap<>();
+        for (AchievementType type : AchievementType.values()) {
+            if (type != AchievementType.COMPOSITE) {
+                elementTypes.put(type.getType().toLowerCase(Locale.ROOT), type);
+            }
+        }
+        return Collections.unmodifiableMap(elementTypes);
+    }
+
+    Relation parse() {
+        final Deque<Group> groups = new ArrayDeque<>();
+        groups.push(new Group(new Relation(), -1));
+        boolean expectOperand = true;
+        boolean operatorFound = false;
+        position = 0;
+        while (skipWhitespace()) {
+            final char current = expression.charAt(position);
+            if (expectOperand) {
+                if (current == '(') {
+                    groups.push(new Group(new Relation(), position));
+                    position++;
+                } else if (isNameCharacter(current)) {
+                    addElement(groups.peek().relation);
+                    expectOperand = false;
+                } else {
+                    throw new MalformedAchievementRelationDefinition("Expected achievement type or open bracket", position);
+                }
+            } else if (current == '&' || current == '|') {
+                setOperator(groups.peek().relation, current == '&' ? RelationOperator.AND : RelationOperator.OR);
+                skipRepeated(current);
+                operatorFound = true;
+                expectOperand = true;
+            } else if (current == ')') {
+                if (groups.size() == 1) {
+                    throw new MalformedAchievementRelationDefinition("Missing open bracket", position);
+                }
+                final Relation group = groups.pop().relation;
+                groups.peek().relation.addChild(group);
+                position++;
+            } else {
+                throw new MalformedAchievementRelationDefinition("Expected operator or close bracket", position);
+            }
+        }
+        if (expectOperand) {
+            throw new MalformedAchievementRelationDefinition("Unexpected end of relation", position);
+        }
+        if (groups.size() > 1) {
+            throw new MalformedAchievementRelationDefinition("Missing close bracket", groups.peek().openPosition);
+        }
+        if (!operatorFound) {
+            throw new MalformedAchievementRelationDefinition("Relation should contain at least one operator", 0);
+        }
+        return groups.pop().relation;
+    }
+
+    /**
+     * Reads an achievement type name. Whitespace between the letters of a name is ignored as well.
+     */
+    private void addElement(final Relation relation) {
+        final int start = position;
+        final StringBuilder name = new StringBuilder();
+        while (position < expression.length()) {
+            final char current = expression.charAt(position);
+            if (isNameCharacter(current)) {
+                name.append(Character.toLowerCase(current));
+                position++;
+            } else if (Character.isWhitespace(current) && continuesName()) {
+                position++;
+            } else {
+                break;
+            }
+        }
+        final AchievementType type = ELEMENT_TYPES.get(name.toString());
+        if (type == null) {
+            throw new MalformedAchievementRelationDefinition("Invalid achievement type: " + name, start);
+        }
+        final Collection<ITrigger> typeTriggers = triggersByType.get(type);
+        if (typeTriggers != null && !typeTriggers.isEmpty()) {
+            relation.addChild(new RelationElement(typeTriggers));
+        }
+    }
+
+    private boolean continuesName() {
+        int next = position;
+        while (next < expression.length() && Character.isWhitespace(expression.charAt(next))) {
+            next++;
+        }
+        return next < expression.length() && isNameCharacter(expression.charAt(next));
+    }
+
+    private void setOperator(final Relation relation, final RelationOperator operator) {
+        if (relation.getOperator() != null && relation.getOperator() != operator) {
+            throw new MalformedAchievementRelationDefinition("Not a valid relation sequence", position);
+        }
+        relation.setOperator(operator);
+    }
+
+    private void skipRepeated(final char operator) {
+        do {
+            position++;
+        } while (skipWhitespace() && expression.charAt(position) == operator);
+    }
+
+    /**
+     * @return {@code true} if there are characters left after the whitespace.
+     */
+    private boolean skipWhitespace() {
+        while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+        return position < expression.length();
+    }
+
+    private static boolean isNameCharacter(final char character) {
+        return Character.isLetterOrDigit(character) || character == '_';
+    }
+
+    private static final class Group {
+
+        private final Relation relation;
+        private final int openPosition;
+
+        private Group(final Relation relation, final int openPosition) {
+            this.relation = relation;
+            this.openPosition = openPosition;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package net.csongradyp.badger.parser.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import javax.inject.Inject;
+import javax.inject.Named;
+import net.csongradyp.badger.AchievementDefinition;
+import net.csongradyp.badger.exception.MalformedAchievementDefinition;
+import net.csongradyp.badger.parser.json.AchievementJsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads achievement definitions through precompiled binary snapshots of the JSON definition files.
+ */
+@Named
+public class BinaryDefinitionParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryDefinitionParser.class);
+
+    @Inject
+    private AchievementJsonParser jsonParser;
+
+    /**
+     * Compiles the JSON definition file into a binary snapshot.
+     *
+     * @param definitionFile JSON achievement definition file.
+     * @param snapshotFile   file to write the snapshot into. An existing snapshot is replaced.
+     * @return the compiled definition.
+     */
+    public AchievementDefinition compile(final File definitionFile, final File snapshotFile) {
+        try {
+            final long sourceChecksum = DefinitionSnapshot.checksumOf(definitionFile.toPath());
+            final AchievementDefinition definition = jsonParser.parse(definitionFile);
+            DefinitionSnapshot.write(definition, sourceChecksum, snapshotFile.toPath());
+            return definition;
+        } catch (IOException e) {
+            throw new MalformedAchievementDefinition("Failed to compile definition snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Restores the definition from the memory-mapped snapshot if it was compiled from the current content of the JSON
+     * definition file and its checksum is valid. Otherwise the JSON definition file is parsed and the snapshot is
+     * compiled again for the next start.
+     *
+     * @param definitionFile JSON achievement definition file.
+     * @param snapshotFile   binary snapshot of the definition file.
+     */
+    public AchievementDefinition parse(final File definitionFile, final File snapshotFile) {
+        final long sourceChecksum;
+        try {
+            sourceChecksum = DefinitionSnapshot.checksumOf(definitionFile.toPath());
+        } catch (IOException e) {
+            throw new MalformedAchievementDefinition(AchievementJsonParser.FILE_ERROR, e);
+        }
+        try {
+            final Optional<AchievementDefinition> definition = DefinitionSnapshot.read(snapshotFile.toPath(), sourceChecksum);
+            if (definition.isPresent()) {
+                return definition.get();
+            }
+            LOG.info("Definition snapshot {} is missing or out of date, parsing {}", snapshotFile, definitionFile);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to read definition snapshot " + snapshotFile + ", parsing " + definitionFile, e);
+        }
+        final AchievementDefinition definition = jsonParser.parse(definitionFile);
+        try {
+            DefinitionSnapshot.write(definition, sourceChecksum, snapshotFile.toPath());
+        } catch (IOException e) {
+            LOG.warn("Failed to write definition snapshot " + snapshotFile, e);
+        }
+        return definition;
+    }
+
+    public void setJsonParser(final AchievementJsonParser jsonParser) {
+        this.jsonParser = jsonParser;
+    }
+}
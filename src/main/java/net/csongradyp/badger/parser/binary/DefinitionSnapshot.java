@@ -0,0 +1,326 @@
+package net.csongradyp.badger.parser.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import net.csongradyp.badger.AchievementDefinition;
+import net.csongradyp.badger.domain.AchievementType;
+import net.csongradyp.badger.domain.IAchievementBean;
+import net.csongradyp.badger.domain.ITriggerableAchievementBean;
+import net.csongradyp.badger.domain.achievement.CompositeAchievementBean;
+import net.csongradyp.badger.domain.achievement.IAchievement;
+import net.csongradyp.badger.domain.achievement.relation.IRelation;
+import net.csongradyp.badger.domain.achievement.relation.Relation;
+import net.csongradyp.badger.domain.achievement.relation.RelationElement;
+import net.csongradyp.badger.domain.achievement.relation.RelationOperator;
+import net.csongradyp.badger.domain.achievement.trigger.DateTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.ITrigger;
+import net.csongradyp.badger.domain.achievement.trigger.ScoreTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.ScoreTriggerPair;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTriggerPair;
+import net.csongradyp.badger.exception.MalformedAchievementDefinition;
+import net.csongradyp.badger.parser.AchievementFactory;
+import org.joda.time.LocalTime;
+
+/**
+ * Versioned binary image of a compiled {@link AchievementDefinition}.
+ * Triggers are stored as primitives, relations as their tree structure and the subscription indexes as built,
+ * so restoring a definition neither parses strings nor sorts anything.
+ * <p>
+ * The header holds the checksum of the source definition file the snapshot was compiled from and the checksum of the
+ * payload, so a stale or corrupted snapshot is detected before any of it is used.
+ */
+final class DefinitionSnapshot {
+
+    private static final int MAGIC = 0x42444746;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 8;
+    private static final byte GROUP = 0;
+    private static final byte ELEMENT = 1;
+
+    private DefinitionSnapshot() {
+    }
+
+    static long checksumOf(final Path file) throws IOException {
+        final CRC32 checksum = new CRC32();
+        final byte[] buffer = new byte[1 << 16];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                checksum.update(buffer, 0, read);
+            }
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Writes the definition into a temporary file and moves it atomically to its final place.
+     *
+     * @param sourceChecksum checksum of the definition file the definition was parsed from.
+     */
+    static void write(final AchievementDefinition definition, final long sourceChecksum, final Path snapshot) throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(payload)) {
+            writeDefinition(output, definition);
+        }
+        final CRC32 payloadChecksum = new CRC32();
+        payloadChecksum.update(payload.toByteArray(), 0, payload.size());
+        final Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temporary); DataOutputStream output = new DataOutputStream(file)) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(sourceChecksum);
+            output.writeInt(payload.size());
+            output.writeLong(payloadChecksum.getValue());
+            payload.writeTo(output);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Memory-maps and restores the snapshot.
+     *
+     * @param sourceChecksum checksum of the current definition file.
+     * @return the restored definition or empty if the snapshot is missing, of another version, compiled from another
+     * definition file or corrupted.
+     */
+    static Optional<AchievementDefinition> read(final Path snapshot, final long sourceChecksum) throws IOException {
+        if (!Files.isRegularFile(snapshot) || Files.size(snapshot) < HEADER_SIZE) {
+            return Optional.empty();
+        }
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != sourceChecksum) {
+            return Optional.empty();
+        }
+        final int payloadSize = buffer.getInt();
+        final long payloadChecksum = buffer.getLong();
+        if (payloadSize != buffer.remaining()) {
+            return Optional.empty();
+        }
+        final CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate());
+        if (checksum.getValue() != payloadChecksum) {
+            return Optional.empty();
+        }
+        return Optional.of(readDefinition(buffer));
+    }
+
+    private static void writeDefinition(final DataOutputStream output, final AchievementDefinition definition) throws IOException {
+        output.writeInt(definition.getEventCount());
+        for (int event = 0; event < definition.getEventCount(); event++) {
+            writeString(output, definition.getEvent(event));
+        }
+        output.writeInt(definition.getAchievementCount());
+        for (int i = 0; i < definition.getAchievementCount(); i++) {
+            writeAchievement(output, definition.getAchievement(i));
+        }
+        definition.writeIndexesTo(output);
+    }
+
+    private static AchievementDefinition readDefinition(final ByteBuffer input) {
+        final int eventCount = input.getInt();
+        final List<String> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            events.add(readString(input));
+        }
+        final int achievementCount = input.getInt();
+        final List<IAchievement> achievements = new ArrayList<>(achievementCount);
+        for (int i = 0; i < achievementCount; i++) {
+            achievements.add(readAchievement(input));
+        }
+        return new AchievementDefinition(events, achievements, input);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeAchievement(final DataOutputStream output, final IAchievement achievement) throws IOException {
+        final AchievementType type = achievement.getType();
+        output.writeByte(type.ordinal());
+        writeString(output, achievement.getId());
+        writeString(output, achievement.getCategory());
+        output.writeInt(achievement.getMaxLevel());
+        final List<String> subscriptions = achievement.getSubscriptions();
+        output.writeInt(subscriptions != null ? subscriptions.size() : -1);
+        if (subscriptions != null) {
+            for (String subscription : subscriptions) {
+                writeString(output, subscription);
+            }
+        }
+        if (type == AchievementType.SINGLE) {
+            return;
+        }
+        final List<ITrigger> triggers = ((ITriggerableAchievementBean<ITrigger>) achievement).getTrigger();
+        output.writeInt(triggers.size());
+        for (ITrigger trigger : triggers) {
+            writeTrigger(output, trigger);
+        }
+        if (type == AchievementType.COMPOSITE) {
+            final Map<ITrigger, Integer> triggerIndexes = new IdentityHashMap<>();
+            for (int i = 0; i < triggers.size(); i++) {
+                triggerIndexes.put(triggers.get(i), i);
+            }
+            writeRelation(output, ((CompositeAchievementBean) achievement).getRelation(), triggerIndexes);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IAchievement readAchievement(final ByteBuffer input) {
+        final AchievementType type = AchievementType.values()[input.get()];
+        final IAchievementBean achievement = AchievementFactory.create(type);
+        achievement.setId(readString(input));
+        achievement.setCategory(readString(input));
+        final int maxLevel = input.getInt();
+        final int subscriptionCount = input.getInt();
+        if (subscriptionCount < 0) {
+            achievement.setSubscription(null);
+        } else {
+            final List<String> subscriptions = new ArrayList<>(subscriptionCount);
+            for (int i = 0; i < subscriptionCount; i++) {
+                subscriptions.add(readString(input));
+            }
+            achievement.setSubscription(subscriptions);
+        }
+        if (type != AchievementType.SINGLE) {
+            final int triggerCount = input.getInt();
+            final List<ITrigger> triggers = new ArrayList<>(triggerCount);
+            for (int i = 0; i < triggerCount; i++) {
+                triggers.add(readTrigger(input));
+            }
+            ((ITriggerableAchievementBean<ITrigger>) achievement).setTrigger(triggers);
+            if (type == AchievementType.COMPOSITE) {
+                ((CompositeAchievementBean) achievement).setRelation((Relation) readRelation(input, triggers));
+            }
+        }
+        achievement.setMaxLevel(maxLevel);
+        return achievement;
+    }
+
+    private static void writeTrigger(final DataOutputStream output, final ITrigger trigger) throws IOException {
+        final AchievementType type = trigger.getType();
+        output.writeByte(type.ordinal());
+        if (type == AchievementType.SCORE) {
+            final ScoreTrigger scoreTrigger = (ScoreTrigger) trigger;
+            output.writeLong(scoreTrigger.getTrigger());
+            output.writeByte(scoreTrigger.getOperation().ordinal());
+        } else if (type == AchievementType.SCORE_RANGE) {
+            final ScoreTriggerPair pair = (ScoreTriggerPair) trigger;
+            output.writeLong(pair.getStartTrigger());
+            output.writeLong(pair.getEndTrigger());
+        } else if (type == AchievementType.DATE) {
+            output.writeShort(((DateTrigger) trigger).getDayOfYear());
+        } else if (type == AchievementType.TIME) {
+            output.writeInt(((TimeTrigger) trigger).getTime().getMillisOfDay());
+        } else if (type == AchievementType.TIME_RANGE) {
+            final TimeTriggerPair pair = (TimeTriggerPair) trigger;
+            output.writeInt(pair.getStartTrigger().getMillisOfDay());
+            output.writeInt(pair.getEndTrigger().getMillisOfDay());
+        } else {
+            throw new MalformedAchievementDefinition("Unsupported trigger type: " + type);
+        }
+    }
+
+    private static ITrigger readTrigger(final ByteBuffer input) {
+        final AchievementType type = AchievementType.values()[input.get()];
+        if (type == AchievementType.SCORE) {
+            final long value = input.getLong();
+            return new ScoreTrigger(value, ScoreTrigger.Operation.values()[input.get()]);
+        } else if (type == AchievementType.SCORE_RANGE) {
+            final long start = input.getLong();
+            return new ScoreTriggerPair(start, input.getLong());
+        } else if (type == AchievementType.DATE) {
+            return DateTrigger.ofDayOfYear(input.getShort());
+        } else if (type == AchievementType.TIME) {
+            return new TimeTrigger(LocalTime.fromMillisOfDay(input.getInt()));
+        } else if (type == AchievementType.TIME_RANGE) {
+            final LocalTime start = LocalTime.fromMillisOfDay(input.getInt());
+            return new TimeTriggerPair(start, LocalTime.fromMillisOfDay(input.getInt()));
+        }
+        throw new MalformedAchievementDefinition("Unsupported trigger type: " + type);
+    }
+
+    /**
+     * Writes the relation tree in prefix order. Elements reference the triggers of the achievement by their index.
+     */
+    private static void writeRelation(final DataOutputStream output, final IRelation relation, final Map<ITrigger, Integer> triggerIndexes) throws IOException {
+        if (relation instanceof Relation) {
+            final Relation group = (Relation) relation;
+            output.writeByte(GROUP);
+            output.writeByte(group.getOperator() != null ? group.getOperator().ordinal() : -1);
+            output.writeInt(group.getChildren().size());
+            for (IRelation child : group.getChildren()) {
+                writeRelation(output, child, triggerIndexes);
+            }
+        } else {
+            final Collection<ITrigger> triggers = ((RelationElement) relation).getTriggers();
+            output.writeByte(ELEMENT);
+            output.writeInt(triggers.size());
+            for (ITrigger trigger : triggers) {
+                output.writeInt(triggerIndexes.get(trigger));
+            }
+        }
+    }
+
+    private static IRelation readRelation(final ByteBuffer input, final List<ITrigger> triggers) {
+        if (input.get() == GROUP) {
+            final Relation group = new Relation();
+            final byte operator = input.get();
+            if (operator >= 0) {
+                group.setOperator(RelationOperator.values()[operator]);
+            }
+            final int childCount = input.getInt();
+            for (int i = 0; i < childCount; i++) {
+                group.addChild(readRelation(input, triggers));
+            }
+            return group;
+        }
+        final int size = input.getInt();
+        final List<ITrigger> elementTriggers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            elementTriggers.add(triggers.get(input.getInt()));
+        }
+        return new RelationElement(elementTriggers);
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer input) {
+        final int length = input.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
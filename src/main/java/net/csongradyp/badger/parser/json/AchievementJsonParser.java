@@ -5,7 +5,13 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -25,9 +31,7 @@ import net.csongradyp.badger.domain.achievement.trigger.TimeTriggerPair;
 import net.csongradyp.badger.exception.MalformedAchievementDefinition;
 import net.csongradyp.badger.parser.AchievementFactory;
 import net.csongradyp.badger.parser.RelationParser;
-import net.csongradyp.badger.parser.json.domain.AchievementDefinitionJson;
 import net.csongradyp.badger.parser.json.domain.AchievementJson;
-import net.csongradyp.badger.parser.json.domain.AchievementsJson;
 import net.csongradyp.badger.parser.json.domain.CompositeAchievementJson;
 import net.csongradyp.badger.parser.json.domain.IAchievementJson;
 import net.csongradyp.badger.parser.json.domain.ISimpleTriggerAchievementJson;
@@ -35,161 +39,163 @@ import net.csongradyp.badger.parser.json.domain.RangeTrigger;
 import net.csongradyp.badger.parser.trigger.ITriggerParser;
 import net.csongradyp.badger.parser.trigger.TriggerParser;
 import net.csongradyp.badger.provider.date.DateProvider;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.type.TypeReference;
 
 @Named
 public class AchievementJsonParser {
 
     public static final String FILE_ERROR = "Achievement JSon file read error.";
+    private static final int CHUNK_SIZE = 256;
+    private static final AchievementType[] SECTION_ORDER = {AchievementType.DATE, AchievementType.TIME, AchievementType.SCORE,
+            AchievementType.SINGLE, AchievementType.SCORE_RANGE, AchievementType.TIME_RANGE, AchievementType.COMPOSITE};
+    private static final Map<String, AchievementType> SECTION_TYPES = createSectionTypes();
+    private static final TypeReference<List<String>> EVENTS = new TypeReference<List<String>>() { };
     @Inject
     private DateProvider dateProvider;
     @Inject
     private TriggerParser triggerParsers;
     private final ObjectMapper mapper;
+    private final Map<AchievementType, ObjectReader> sectionReaders;
     @Inject
     private RelationParser relationParser;
 
+    private static Map<String, AchievementType> createSectionTypes() {
+        final Map<String, AchievementType> sectionTypes = new HashMap<>();
+        for (AchievementType type : SECTION_ORDER) {
+            sectionTypes.put(type.getType(), type);
+        }
+        return sectionTypes;
+    }
+
     public AchievementJsonParser() {
         mapper = new ObjectMapper();
+        sectionReaders = new EnumMap<>(AchievementType.class);
+        final ObjectReader simpleTriggerReader = mapper.reader(new TypeReference<AchievementJson<String>>() { });
+        sectionReaders.put(AchievementType.DATE, simpleTriggerReader);
+        sectionReaders.put(AchievementType.TIME, simpleTriggerReader);
+        sectionReaders.put(AchievementType.SCORE, simpleTriggerReader);
+        sectionReaders.put(AchievementType.SINGLE, simpleTriggerReader);
+        sectionReaders.put(AchievementType.SCORE_RANGE, mapper.reader(new TypeReference<AchievementJson<RangeTrigger<Long>>>() { }));
+        sectionReaders.put(AchievementType.TIME_RANGE, mapper.reader(new TypeReference<AchievementJson<RangeTrigger<String>>>() { }));
+        sectionReaders.put(AchievementType.COMPOSITE, mapper.reader(CompositeAchievementJson.class));
     }
 
     public AchievementDefinition parse(final File achievementFile) {
-        final AchievementDefinition achievementDefinition = new AchievementDefinition();
         try {
-            final AchievementDefinitionJson achievementDefinitionJson = mapper.readValue(achievementFile, AchievementDefinitionJson.class);
-            setProperties(achievementDefinition, achievementDefinitionJson);
+            return parse(mapper.getJsonFactory().createJsonParser(achievementFile));
         } catch (IOException e) {
             throw new MalformedAchievementDefinition(FILE_ERROR, e);
         }
-        return achievementDefinition;
     }
 
     public AchievementDefinition parse(final String achievementFileLocation) {
-        final AchievementDefinition achievementDefinition = new AchievementDefinition();
-        try {
-            final AchievementDefinitionJson achievementDefinitionJson = mapper.readValue(new File(achievementFileLocation), AchievementDefinitionJson.class);
-            setProperties(achievementDefinition, achievementDefinitionJson);
-        } catch (IOException e) {
-            throw new MalformedAchievementDefinition(FILE_ERROR, e);
-        }
-        return achievementDefinition;
+        return parse(new File(achievementFileLocation));
     }
 
     public AchievementDefinition parse(final URL achievementFile) {
-        final AchievementDefinition achievementDefinition = new AchievementDefinition();
         try {
-            final AchievementDefinitionJson achievementDefinitionJson = mapper.readValue(achievementFile, AchievementDefinitionJson.class);
-            setProperties(achievementDefinition, achievementDefinitionJson);
+            return parse(mapper.getJsonFactory().createJsonParser(achievementFile));
         } catch (IOException e) {
             throw new MalformedAchievementDefinition(FILE_ERROR, e);
         }
-        return achievementDefinition;
     }
 
-    private void setProperties(AchievementDefinition achievementDefinition, AchievementDefinitionJson achievementDefinitionJson) {
-        achievementDefinition.setEvents(achievementDefinitionJson.getEvents());
-        final AchievementsJson achievements = achievementDefinitionJson.getAchievements();
-        achievementDefinition.setAchievements(parseAchievements(achievements));
+    /**
+     * Reads the definition from the token stream. Achievements are bound one by one and handed over in chunks to the
+     * fork-join pool, which builds the beans while the rest of the file is being read, so the whole file is never held
+     * in memory as a JSON tree. The beans are collected in the order of the sections below regardless of their order
+     * in the file.
+     */
+    private AchievementDefinition parse(final JsonParser jsonParser) throws IOException {
+        try (JsonParser parser = jsonParser) {
+            return new DefinitionReader(parser).read();
+        }
     }
 
-    private Collection<IAchievement> parseAchievements(final AchievementsJson achievements) {
-        final Collection<IAchievement> achievementBeans = new ArrayList<>();
-        for (AchievementType type : AchievementType.values()) {
-            if (type == AchievementType.SCORE || type == AchievementType.TIME || type == AchievementType.DATE) {
-                final List<IAchievementBean> beans = mapTriggerAchievements(type, (List<ISimpleTriggerAchievementJson>) achievements.get(type));
-                achievementBeans.addAll(beans);
-            } else if (type == AchievementType.SINGLE) {
-                achievementBeans.addAll(mapSingleAchievementBeans(achievements.get(type)));
-            }
-        }
-        if (achievements.getScoreRange() != null) {
-            achievementBeans.addAll(mapScoreRangeAchievements(achievements.getScoreRange()));
-        }
-        if (achievements.getTimeRange() != null) {
-            achievementBeans.addAll(mapTimeRangeAchievements(achievements.getTimeRange()));
-        }
-        if (achievements.getComposite() != null) {
-            achievementBeans.addAll(mapCompositeAchievementBeans(achievements.getComposite()));
+    @SuppressWarnings("unchecked")
+    private IAchievement mapAchievement(final AchievementType type, final IAchievementJson json) {
+        if (type == AchievementType.SCORE || type == AchievementType.TIME || type == AchievementType.DATE) {
+            return mapTriggerAchievement(type, (ISimpleTriggerAchievementJson<String>) json);
+        } else if (type == AchievementType.SINGLE) {
+            return mapSingleAchievementBean(json);
+        } else if (type == AchievementType.SCORE_RANGE) {
+            return mapScoreRangeAchievement((AchievementJson<RangeTrigger<Long>>) json);
+        } else if (type == AchievementType.TIME_RANGE) {
+            return mapTimeRangeAchievement((AchievementJson<RangeTrigger<String>>) json);
         }
-        return achievementBeans;
+        return mapCompositeAchievementBean((CompositeAchievementJson) json);
     }
 
     @SuppressWarnings("unchecked")
-    private List<CompositeAchievementBean> mapCompositeAchievementBeans(final List<CompositeAchievementJson> achievements) {
-        return achievements.stream().map(json -> {
-            final CompositeAchievementBean bean = new CompositeAchievementBean();
-            mapBasicAttributes(json, bean);
-
-            final List<ITrigger> triggers = new ArrayList<>();
-            if(json.getScoreTrigger() != null) {
-                triggers.addAll(triggerParsers.score().parse(json.getScoreTrigger()));
-            }
-            if(json.getDateTrigger() != null) {
-                triggers.addAll(triggerParsers.date().parse(json.getDateTrigger()));
-            }
-            if(json.getTimeTrigger() != null) {
-                triggers.addAll(triggerParsers.time().parse(json.getTimeTrigger()));
-            }
-            if(json.getScoreRangeTrigger() != null) {
-                triggers.addAll(getScoreTriggerPairs(json.getScoreRangeTrigger()));
-            }
+    private CompositeAchievementBean mapCompositeAchievementBean(final CompositeAchievementJson json) {
+        final CompositeAchievementBean bean = new CompositeAchievementBean();
+        mapBasicAttributes(json, bean);
 
-            if(json.getTimeRangeTrigger() != null) {
-                triggers.addAll(getTimeTriggerPairs(json.getTimeRangeTrigger()));
-            }
+        final List<ITrigger> triggers = new ArrayList<>();
+        if(json.getScoreTrigger() != null) {
+            triggers.addAll(triggerParsers.score().parse(json.getScoreTrigger()));
+        }
+        if(json.getDateTrigger() != null) {
+            triggers.addAll(triggerParsers.date().parse(json.getDateTrigger()));
+        }
+        if(json.getTimeTrigger() != null) {
+            triggers.addAll(triggerParsers.time().parse(json.getTimeTrigger()));
+        }
+        if(json.getScoreRangeTrigger() != null) {
+            triggers.addAll(getScoreTriggerPairs(json.getScoreRangeTrigger()));
+        }
 
-            if(json.getRelation() == null) {
-                throw new MalformedAchievementDefinition("Missing relation definition for: " + json.getId());
-            }
-            bean.setTrigger(triggers);
-            final Relation relation = relationParser.parse(json.getRelation(), triggers);
-            bean.setRelation(relation);
+        if(json.getTimeRangeTrigger() != null) {
+            triggers.addAll(getTimeTriggerPairs(json.getTimeRangeTrigger()));
+        }
+
+        if(json.getRelation() == null) {
+            throw new MalformedAchievementDefinition("Missing relation definition for: " + json.getId());
+        }
+        bean.setTrigger(triggers);
+        final Relation relation = relationParser.parse(json.getRelation(), triggers);
+        bean.setRelation(relation);
 
-            return bean;
-        }).collect(Collectors.toList());
+        return bean;
     }
 
-    private List<SingleAchievementBean> mapSingleAchievementBeans(final List<? extends IAchievementJson> achievements) {
-        return achievements.stream().map(json -> {
-            final SingleAchievementBean bean = new SingleAchievementBean();
-            mapBasicAttributes(json, bean);
-            return bean;
-        }).collect(Collectors.toList());
+    private SingleAchievementBean mapSingleAchievementBean(final IAchievementJson json) {
+        final SingleAchievementBean bean = new SingleAchievementBean();
+        mapBasicAttributes(json, bean);
+        return bean;
     }
 
     @SuppressWarnings("unchecked")
-    private List<IAchievementBean> mapTriggerAchievements(final AchievementType type, final List<? extends ISimpleTriggerAchievementJson> achievementJsons) {
-        return achievementJsons.parallelStream().map(json -> {
-            final ITriggerableAchievementBean bean = (ITriggerableAchievementBean) AchievementFactory.create(type);
-            mapBasicAttributes(json, bean);
-            final ITriggerParser<ITrigger> triggerParser = triggerParsers.get(type);
-            bean.setTrigger(triggerParser.parse(json.getTrigger()));
-            return bean;
-        }).collect(Collectors.toList());
-    }
-
-    private Collection<IAchievement> mapScoreRangeAchievements(final List<AchievementJson<RangeTrigger<Long>>> scoreRange) {
-        return scoreRange.parallelStream().map(json -> {
-            final ScoreRangeAchievementBean bean = new ScoreRangeAchievementBean();
-            mapBasicAttributes(json, bean);
-            final List<ScoreTriggerPair> triggers = getScoreTriggerPairs(json.getTrigger());
-            bean.setTrigger(triggers);
-            return bean;
-        }).collect(Collectors.toList());
+    private IAchievementBean mapTriggerAchievement(final AchievementType type, final ISimpleTriggerAchievementJson<String> json) {
+        final ITriggerableAchievementBean bean = (ITriggerableAchievementBean) AchievementFactory.create(type);
+        mapBasicAttributes(json, bean);
+        final ITriggerParser<ITrigger> triggerParser = triggerParsers.get(type);
+        bean.setTrigger(triggerParser.parse(json.getTrigger()));
+        return bean;
+    }
+
+    private ScoreRangeAchievementBean mapScoreRangeAchievement(final AchievementJson<RangeTrigger<Long>> json) {
+        final ScoreRangeAchievementBean bean = new ScoreRangeAchievementBean();
+        mapBasicAttributes(json, bean);
+        final List<ScoreTriggerPair> triggers = getScoreTriggerPairs(json.getTrigger());
+        bean.setTrigger(triggers);
+        return bean;
     }
 
     private List<ScoreTriggerPair> getScoreTriggerPairs(List<RangeTrigger<Long>> trigger) {
         return trigger.stream().map(t -> new ScoreTriggerPair(t.getStart(), t.getEnd())).collect(Collectors.toList());
     }
 
-    private Collection<IAchievement> mapTimeRangeAchievements(final List<AchievementJson<RangeTrigger<String>>> timeRange) {
-        return timeRange.parallelStream().map(json -> {
-            final TimeRangeAchievementBean bean = new TimeRangeAchievementBean();
-            mapBasicAttributes(json, bean);
-            final List<TimeTriggerPair> triggers = getTimeTriggerPairs(json.getTrigger());
-            bean.setTrigger(triggers);
-            return bean;
-        }).collect(Collectors.toList());
+    private TimeRangeAchievementBean mapTimeRangeAchievement(final AchievementJson<RangeTrigger<String>> json) {
+        final TimeRangeAchievementBean bean = new TimeRangeAchievementBean();
+        mapBasicAttributes(json, bean);
+        final List<TimeTriggerPair> triggers = getTimeTriggerPairs(json.getTrigger());
+        bean.setTrigger(triggers);
+        return bean;
     }
 
     private List<TimeTriggerPair> getTimeTriggerPairs(List<RangeTrigger<String>> trigger) {
@@ -202,15 +208,106 @@ public class AchievementJsonParser {
         bean.setSubscription(json.getSubscription());
     }
 
-    void setTriggerParsers(final TriggerParser triggerParsers) {
+    private final class DefinitionReader {
+
+        private final JsonParser parser;
+        private final Map<AchievementType, List<ForkJoinTask<List<IAchievement>>>> sections;
+        private List<String> events;
+
+        private DefinitionReader(final JsonParser parser) {
+            this.parser = parser;
+            sections = new EnumMap<>(AchievementType.class);
+        }
+
+        private AchievementDefinition read() throws IOException {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("events".equals(field)) {
+                    events = mapper.readValue(parser, EVENTS);
+                } else if ("achievements".equals(field)) {
+                    readAchievements();
+                } else {
+                    throw new MalformedAchievementDefinition("Unknown definition field: " + field);
+                }
+            }
+            return new AchievementDefinition(events != null ? events : Collections.emptyList(), collectAchievements());
+        }
+
+        private void readAchievements() throws IOException {
+            if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+                return;
+            }
+            expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String section = parser.getCurrentName();
+                final AchievementType type = SECTION_TYPES.get(section);
+                if (type == null) {
+                    throw new MalformedAchievementDefinition("Unknown achievement type: " + section);
+                }
+                if (parser.nextToken() != JsonToken.VALUE_NULL) {
+                    readSection(type);
+                }
+            }
+        }
+
+        private void readSection(final AchievementType type) throws IOException {
+            expect(parser.getCurrentToken(), JsonToken.START_ARRAY);
+            final ObjectReader sectionReader = sectionReaders.get(type);
+            final List<ForkJoinTask<List<IAchievement>>> tasks = sections.computeIfAbsent(type, key -> new ArrayList<>());
+            List<IAchievementJson> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                final IAchievementJson json = sectionReader.readValue(parser);
+                chunk.add(json);
+                if (chunk.size() == CHUNK_SIZE) {
+                    tasks.add(submit(type, chunk));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                tasks.add(submit(type, chunk));
+            }
+        }
+
+        private ForkJoinTask<List<IAchievement>> submit(final AchievementType type, final List<IAchievementJson> chunk) {
+            return ForkJoinPool.commonPool().submit(() -> {
+                final List<IAchievement> beans = new ArrayList<>(chunk.size());
+                for (IAchievementJson json : chunk) {
+                    beans.add(mapAchievement(type, json));
+                }
+                // the task keeps referencing the chunk until it is joined, so the bound JSON is released here
+                chunk.clear();
+                return beans;
+            });
+        }
+
+        private Collection<IAchievement> collectAchievements() {
+            final Collection<IAchievement> achievementBeans = new ArrayList<>();
+            for (AchievementType type : SECTION_ORDER) {
+                for (ForkJoinTask<List<IAchievement>> task : sections.getOrDefault(type, Collections.emptyList())) {
+                    achievementBeans.addAll(task.join());
+                }
+            }
+            return achievementBeans;
+        }
+
+        private void expect(final JsonToken token, final JsonToken expected) {
+            if (token != expected) {
+                throw new MalformedAchievementDefinition("Expected " + expected + " but found " + token + " at " + parser.getCurrentLocation());
+            }
+        }
+    }
+
+    public void setTriggerParsers(final TriggerParser triggerParsers) {
         this.triggerParsers = triggerParsers;
     }
 
-    void setDateProvider(final DateProvider dateProvider) {
+    public void setDateProvider(final DateProvider dateProvider) {
         this.dateProvider = dateProvider;
     }
 
-    void setRelationParser(RelationParser relationParser) {
+    public void setRelationParser(final RelationParser relationParser) {
         this.relationParser = relationParser;
     }
 }
@@ -25,4 +25,7 @@ public class DateTriggerParser implements ITriggerParser<DateTrigger> {
         return timeTriggers;
     }
 
+    public void setDateProvider(final DateProvider dateProvider) {
+        this.dateProvider = dateProvider;
+    }
 }
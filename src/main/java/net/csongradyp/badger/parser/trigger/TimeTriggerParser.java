@@ -24,4 +24,8 @@ public class TimeTriggerParser implements ITriggerParser<TimeTrigger> {
         }
         return timeTriggers;
     }
+
+    public void setDateProvider(final DateProvider dateProvider) {
+        this.dateProvider = dateProvider;
+    }
 }
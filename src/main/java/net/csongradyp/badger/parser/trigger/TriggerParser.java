@@ -37,4 +37,16 @@ public class TriggerParser {
         }
         return parser;
     }
+
+    public void setDateTriggerParser(final DateTriggerParser dateTriggerParser) {
+        this.dateTriggerParser = dateTriggerParser;
+    }
+
+    public void setTimeTriggerParser(final TimeTriggerParser timeTriggerParser) {
+        this.timeTriggerParser = timeTriggerParser;
+    }
+
+    public void setScoreTriggerParser(final ScoreTriggerParser scoreTriggerParser) {
+        this.scoreTriggerParser = scoreTriggerParser;
+    }
 }
@@ -2,22 +2,23 @@ package net.csongradyp.badger.provider;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 import javax.inject.Inject;
 import javax.inject.Named;
 import net.csongradyp.badger.AchievementDefinition;
 import net.csongradyp.badger.domain.AchievementType;
 import net.csongradyp.badger.domain.achievement.DateAchievementBean;
 import net.csongradyp.badger.domain.achievement.IAchievement;
-import net.csongradyp.badger.domain.achievement.ScoreAchievementBean;
 import net.csongradyp.badger.domain.achievement.ScoreRangeAchievementBean;
 import net.csongradyp.badger.domain.achievement.TimeAchievementBean;
 import net.csongradyp.badger.domain.achievement.TimeRangeAchievementBean;
-import net.csongradyp.badger.event.IAchievementUnlockedEvent;
+import net.csongradyp.badger.provider.date.ClockReading;
+import net.csongradyp.badger.provider.date.DateProvider;
+import net.csongradyp.badger.provider.index.CalendarIndex;
+import net.csongradyp.badger.provider.index.ScoreThresholdIndex;
 import net.csongradyp.badger.provider.unlock.CompositeUnlockedProvider;
+import net.csongradyp.badger.provider.unlock.ScoreUnlockedProvider;
 import net.csongradyp.badger.repository.Repository;
 
 @Named
@@ -30,62 +31,132 @@ public class AchievementUnlockProviderFacade {
     @Inject
     private IUnlockedProvider<DateAchievementBean> dateUnlockedProvider;
     @Inject
-    private IUnlockedProvider<ScoreAchievementBean> scoreUnlockedProvider;
+    private ScoreUnlockedProvider scoreUnlockedProvider;
     @Inject
     private IUnlockedProvider<ScoreRangeAchievementBean> scoreRangeUnlockedProvider;
     @Inject
     private IUnlockedProvider<TimeAchievementBean> timeUnlockedProvider;
     @Inject
     private IUnlockedProvider<TimeRangeAchievementBean> timeRangeUnlockedProvider;
-    private Map<AchievementType, IUnlockedProvider<? extends IAchievement>> unlockedProviders;
-    private AchievementDefinition achievementDefinition;
-
-    public AchievementUnlockProviderFacade() {
-        unlockedProviders = new HashMap<>();
-        unlockedProviders.put(AchievementType.COMPOSITE, compositeUnlockedProvider);
-        unlockedProviders.put(AchievementType.DATE, dateUnlockedProvider);
-        unlockedProviders.put(AchievementType.TIME, timeUnlockedProvider);
-        unlockedProviders.put(AchievementType.TIME_RANGE, timeRangeUnlockedProvider);
-        unlockedProviders.put(AchievementType.SCORE, scoreUnlockedProvider);
-        unlockedProviders.put(AchievementType.SCORE_RANGE, scoreRangeUnlockedProvider);
-    }
-
-    public Collection<IAchievementUnlockedEvent> findAll(final String userId) {
-        final Collection<IAchievementUnlockedEvent> unlockables = new ArrayList<>();
-        achievementDefinition.getAll().stream().forEach(achievementBean -> {
-            final Optional<IAchievementUnlockedEvent> achievement = getUnlockable(userId, achievementBean);
-            if (achievement.isPresent()) {
-                unlockables.add(achievement.get());
-            }
-        });
+    @Inject
+    private DateProvider dateProvider;
+
+    public Collection<UnlockCandidate> findAll(final AchievementDefinition achievementDefinition, final String userId) {
+        final Collection<UnlockCandidate> unlockables = new ArrayList<>();
+        final ClockReading now = dateProvider.now();
+        for (int achievementIndex = 0; achievementIndex < achievementDefinition.getAchievementCount(); achievementIndex++) {
+            unlockables.addAll(getUnlockables(userId, achievementIndex, achievementDefinition.getAchievement(achievementIndex), now));
+        }
         return unlockables;
     }
 
-    public Collection<IAchievementUnlockedEvent> findUnlockables(final String userId, final String event) {
-        final Long currentValue = repository.event().scoreOf(userId, event);
-        return findUnlockables(userId, event, currentValue);
+    /**
+     * Finds the achievements subscribed to the given event which are unlocked by the score change.
+     * Score achievements are resolved through the merged threshold index of the event, so only the crossed thresholds
+     * are evaluated and every crossed level is returned. Date, time and time range achievements are looked up in the
+     * calendar index of the event, so only the ones which can fire at the current clock reading are checked. Every other
+     * subscribed achievement is checked against the new score by its own provider. The clock is read once, so every
+     * provider evaluates the trigger at the same minute and day.
+     *
+     * @param achievementDefinition definition snapshot the event index belongs to.
+     * @param event    dense index of the updated event in the achievement definition.
+     * @param oldScore score of the event before the update.
+     * @param newScore score of the event after the update.
+     * @return candidates of the matching achievement levels.
+     */
+    public Collection<UnlockCandidate> findUnlockables(final AchievementDefinition achievementDefinition, final String userId, final int event,
+                                                       final Long oldScore, final Long newScore) {
+        return findUnlockables(achievementDefinition, userId, event, oldScore, newScore, false);
     }
 
-    public Collection<IAchievementUnlockedEvent> findUnlockables(final String userId, final String event, final Long score) {
-        final Collection<IAchievementUnlockedEvent> unlockables = new ArrayList<>();
-        final Collection<IAchievement> achievementBeans = achievementDefinition.getAchievementsSubscribedFor(event);
-        for (IAchievement achievementBean : achievementBeans) {
-            final Optional<IAchievementUnlockedEvent> achievement = getUnlockable(userId, achievementBean, score);
-            if (achievement.isPresent()) {
-                unlockables.add(achievement.get());
-            }
+    /**
+     * Finds the achievements subscribed to the given event which are unlocked by the score change.
+     *
+     * @param achievementDefinition definition snapshot the event index belongs to.
+     * @param event    dense index of the updated event in the achievement definition.
+     * @param oldScore score of the event before the update.
+     * @param newScore score of the event after the update.
+     * @param counted  {@code true} if the new score was reached by incrementing the counter from the old score,
+     *                 so score achievements are evaluated for every intermediate value.
+     * @return candidates of the matching achievement levels.
+     */
+    public Collection<UnlockCandidate> findUnlockables(final AchievementDefinition achievementDefinition, final String userId, final int event,
+                                                       final Long oldScore, final Long newScore, final boolean counted) {
+        final Collection<UnlockCandidate> unlockables = new ArrayList<>();
+        final ClockReading now = dateProvider.now();
+        final ScoreThresholdIndex scoreThresholdIndex = achievementDefinition.getScoreThresholdIndex(event);
+        if (!scoreThresholdIndex.isEmpty()) {
+            unlockables.addAll(scoreUnlockedProvider.getUnlockables(userId, scoreThresholdIndex, oldScore, newScore, counted));
         }
+        final CalendarIndex calendarIndex = achievementDefinition.getCalendarIndex(event);
+        if (!calendarIndex.isEmpty()) {
+            addUnlockables(achievementDefinition, unlockables, userId, calendarIndex.getFiringOnDay(now.getDayOfYear()), newScore, now);
+            addUnlockables(achievementDefinition, unlockables, userId, calendarIndex.getFiringAtMinute(now.getMinuteOfDay()), newScore, now);
+        }
+        addUnlockables(achievementDefinition, unlockables, userId, achievementDefinition.getUnindexedSubscribers(event), newScore, now);
         return unlockables;
     }
 
-    private Optional<IAchievementUnlockedEvent> getUnlockable(final String userId,final IAchievement achievementBean, final Long currentValue) {
-        final IUnlockedProvider<IAchievement> unlockedProvider = (IUnlockedProvider<IAchievement>) unlockedProviders.get(achievementBean.getType());
-        return unlockedProvider.getUnlockable(userId, achievementBean, currentValue);
+    /**
+     * Finds every score achievement level of the event reached by the given score, whether or not the last update crossed it.
+     * Used to catch up on tiers which a definition reload added or lowered below a score stored earlier.
+     *
+     * @param achievementDefinition definition snapshot the event index belongs to.
+     * @param event dense index of the event in the achievement definition.
+     * @param score current score of the event.
+     * @return candidates of the reached achievement levels.
+     */
+    public Collection<UnlockCandidate> findReachedScoreUnlockables(final AchievementDefinition achievementDefinition, final String userId, final int event,
+                                                                   final Long score) {
+        final ScoreThresholdIndex scoreThresholdIndex = achievementDefinition.getScoreThresholdIndex(event);
+        if (scoreThresholdIndex.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return scoreUnlockedProvider.getUnlockables(userId, scoreThresholdIndex, Long.MIN_VALUE, score, false);
+    }
+
+    private void addUnlockables(final AchievementDefinition achievementDefinition, final Collection<UnlockCandidate> unlockables, final String userId, final int[] achievementIndexes, final Long score,
+                                final ClockReading now) {
+        for (int achievementIndex : achievementIndexes) {
+            unlockables.addAll(getUnlockables(userId, achievementIndex, achievementDefinition.getAchievement(achievementIndex), score, now));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<UnlockCandidate> getUnlockables(final String userId, final int achievementIndex, final IAchievement achievementBean, final Long currentValue,
+                                                       final ClockReading now) {
+        final IUnlockedProvider<IAchievement> unlockedProvider = (IUnlockedProvider<IAchievement>) getUnlockedProvider(achievementBean.getType());
+        if (unlockedProvider == null) {
+            return Collections.emptyList();
+        }
+        return unlockedProvider.getUnlockables(userId, achievementIndex, achievementBean, currentValue, now);
+    }
+
+    private IUnlockedProvider<? extends IAchievement> getUnlockedProvider(final AchievementType type) {
+        IUnlockedProvider<? extends IAchievement> unlockedProvider = null;
+        if (type == AchievementType.COMPOSITE) {
+            unlockedProvider = compositeUnlockedProvider;
+        } else if (type == AchievementType.DATE) {
+            unlockedProvider = dateUnlockedProvider;
+        } else if (type == AchievementType.TIME) {
+            unlockedProvider = timeUnlockedProvider;
+        } else if (type == AchievementType.TIME_RANGE) {
+            unlockedProvider = timeRangeUnlockedProvider;
+        } else if (type == AchievementType.SCORE) {
+            unlockedProvider = scoreUnlockedProvider;
+        } else if (type == AchievementType.SCORE_RANGE) {
+            unlockedProvider = scoreRangeUnlockedProvider;
+        }
+        return unlockedProvider;
+    }
+
+    public Collection<UnlockCandidate> getUnlockables(final String userId, final int achievementIndex, final IAchievement achievementBean) {
+        return getUnlockables(userId, achievementIndex, achievementBean, dateProvider.now());
     }
 
-    public Optional<IAchievementUnlockedEvent> getUnlockable(final String userId, final IAchievement achievementBean) {
+    private Collection<UnlockCandidate> getUnlockables(final String userId, final int achievementIndex, final IAchievement achievementBean, final ClockReading now) {
         final Long bestScore = getBestScoreOf(userId, achievementBean.getSubscriptions());
-        return getUnlockable(userId, achievementBean, bestScore);
+        return getUnlockables(userId, achievementIndex, achievementBean, bestScore, now);
     }
 
     private Long getBestScoreOf(final String userId, final List<String> events) {
@@ -99,12 +170,36 @@ public class AchievementUnlockProviderFacade {
         return bestScore;
     }
 
-    public void setAchievementDefinition(final AchievementDefinition achievementDefinition) {
-        this.achievementDefinition = achievementDefinition;
-    }
-
     public void setRepository(final Repository repository) {
         this.repository = repository;
     }
 
+    public void setCompositeUnlockedProvider(final CompositeUnlockedProvider compositeUnlockedProvider) {
+        this.compositeUnlockedProvider = compositeUnlockedProvider;
+    }
+
+    public void setDateUnlockedProvider(final IUnlockedProvider<DateAchievementBean> dateUnlockedProvider) {
+        this.dateUnlockedProvider = dateUnlockedProvider;
+    }
+
+    public void setScoreUnlockedProvider(final ScoreUnlockedProvider scoreUnlockedProvider) {
+        this.scoreUnlockedProvider = scoreUnlockedProvider;
+    }
+
+    public void setScoreRangeUnlockedProvider(final IUnlockedProvider<ScoreRangeAchievementBean> scoreRangeUnlockedProvider) {
+        this.scoreRangeUnlockedProvider = scoreRangeUnlockedProvider;
+    }
+
+    public void setTimeUnlockedProvider(final IUnlockedProvider<TimeAchievementBean> timeUnlockedProvider) {
+        this.timeUnlockedProvider = timeUnlockedProvider;
+    }
+
+    public void setTimeRangeUnlockedProvider(final IUnlockedProvider<TimeRangeAchievementBean> timeRangeUnlockedProvider) {
+        this.timeRangeUnlockedProvider = timeRangeUnlockedProvider;
+    }
+
+    public void setDateProvider(final DateProvider dateProvider) {
+        this.dateProvider = dateProvider;
+    }
+
 }
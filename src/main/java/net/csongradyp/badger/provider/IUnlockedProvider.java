@@ -1,10 +1,15 @@
 package net.csongradyp.badger.provider;
 
-import java.util.Optional;
+import java.util.Collection;
 import net.csongradyp.badger.domain.achievement.IAchievement;
-import net.csongradyp.badger.event.IAchievementUnlockedEvent;
+import net.csongradyp.badger.provider.date.ClockReading;
 
 public interface IUnlockedProvider<TYPE extends IAchievement> {
 
-    Optional<IAchievementUnlockedEvent> getUnlockable(String userId, TYPE achievement, Long score);
+    /**
+     * @param achievementIndex dense index of the achievement in the definition snapshot.
+     * @param now              clock reading of the whole evaluation.
+     * @return candidates of the achievement levels unlocked by the score.
+     */
+    Collection<UnlockCandidate> getUnlockables(String userId, int achievementIndex, TYPE achievement, Long score, ClockReading now);
 }
@@ -0,0 +1,49 @@
+package net.csongradyp.badger.provider;
+
+/**
+ * Achievement level found unlockable by the providers. Candidates only hold the dense achievement index, the level and
+ * the trigger value, the unlocked event is created after the unlock has been saved.
+ */
+public final class UnlockCandidate {
+
+    private final int achievementIndex;
+    private final int level;
+    private final long score;
+    private final String triggerValue;
+
+    private UnlockCandidate(final int achievementIndex, final int level, final long score, final String triggerValue) {
+        this.achievementIndex = achievementIndex;
+        this.level = level;
+        this.score = score;
+        this.triggerValue = triggerValue;
+    }
+
+    /**
+     * @return candidate of the achievement level fired by the given score.
+     */
+    public static UnlockCandidate ofScore(final int achievementIndex, final int level, final long score) {
+        return new UnlockCandidate(achievementIndex, level, score, null);
+    }
+
+    /**
+     * @return candidate of the first level of the achievement fired by the given value.
+     */
+    public static UnlockCandidate of(final int achievementIndex, final String triggerValue) {
+        return new UnlockCandidate(achievementIndex, 1, 0L, triggerValue);
+    }
+
+    public int getAchievementIndex() {
+        return achievementIndex;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return {@link String} representation of the value which fired the candidate.
+     */
+    public String getTriggerValue() {
+        return triggerValue != null ? triggerValue : String.valueOf(score);
+    }
+}
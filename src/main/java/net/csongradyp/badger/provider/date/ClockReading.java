@@ -0,0 +1,71 @@
+package net.csongradyp.badger.provider.date;
+
+import net.csongradyp.badger.domain.achievement.trigger.DateTrigger;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+/**
+ * Immutable reading of the wall clock with minute resolution, valid until the next minute starts.
+ */
+public class ClockReading {
+
+    private static final long MILLIS_PER_MINUTE = 60 * 1000;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormat.forPattern("MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormat.forPattern("HH:mm");
+
+    private final long validFrom;
+    private final long validUntil;
+    private final int minuteOfDay;
+    private final int dayOfYear;
+    private final String date;
+    private final String time;
+
+    private ClockReading(final long validFrom, final long validUntil, final int minuteOfDay, final int dayOfYear, final String date, final String time) {
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+        this.minuteOfDay = minuteOfDay;
+        this.dayOfYear = dayOfYear;
+        this.date = date;
+        this.time = time;
+    }
+
+    static ClockReading at(final long millis) {
+        final DateTime time = new DateTime(millis);
+        final long validFrom = time.withSecondOfMinute(0).withMillisOfSecond(0).getMillis();
+        return new ClockReading(validFrom, validFrom + MILLIS_PER_MINUTE, time.getMinuteOfDay(), DateTrigger.toDayOfYear(time.getMonthOfYear(), time.getDayOfMonth()),
+                DATE_FORMATTER.print(validFrom), TIME_FORMATTER.print(validFrom));
+    }
+
+    boolean isValidAt(final long millis) {
+        return millis >= validFrom && millis < validUntil;
+    }
+
+    /**
+     * @return minutes elapsed since midnight in the default time zone.
+     */
+    public int getMinuteOfDay() {
+        return minuteOfDay;
+    }
+
+    /**
+     * @return day of the year on a leap year calendar, so every month and day pair has the same index each year.
+     */
+    public int getDayOfYear() {
+        return dayOfYear;
+    }
+
+    /**
+     * @return date of the reading in {@code MM-dd} format.
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * @return time of the reading in {@code HH:mm} format.
+     */
+    public String getTime() {
+        return time;
+    }
+}
@@ -12,12 +12,27 @@ public class DateProvider {
 
     private final DateTimeFormatter dateFormatter;
     private final DateTimeFormatter timeFormatter;
+    private volatile ClockReading clockReading = ClockReading.at(System.currentTimeMillis());
 
     public DateProvider() {
         dateFormatter = DateTimeFormat.forPattern("MM-dd");
         timeFormatter = DateTimeFormat.forPattern("HH:mm");
     }
 
+    /**
+     * Returns the current minute of the day and day of the year. The reading is cached until the minute ends,
+     * so reading the clock does not allocate. Read it once per evaluation to get a consistent time.
+     */
+    public ClockReading now() {
+        final long millis = System.currentTimeMillis();
+        ClockReading reading = clockReading;
+        if (!reading.isValidAt(millis)) {
+            reading = ClockReading.at(millis);
+            clockReading = reading;
+        }
+        return reading;
+    }
+
     public String currentDateString() {
         return format(new Date().getTime());
     }
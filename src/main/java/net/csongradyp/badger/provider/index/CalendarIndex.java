@@ -0,0 +1,180 @@
+package net.csongradyp.badger.provider.index;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import net.csongradyp.badger.domain.AchievementType;
+import net.csongradyp.badger.domain.achievement.DateAchievementBean;
+import net.csongradyp.badger.domain.achievement.IAchievement;
+import net.csongradyp.badger.domain.achievement.TimeAchievementBean;
+import net.csongradyp.badger.domain.achievement.TimeRangeAchievementBean;
+import net.csongradyp.badger.domain.achievement.trigger.DateTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTrigger;
+import net.csongradyp.badger.domain.achievement.trigger.TimeTriggerPair;
+
+/**
+ * Precomputed calendar of the date, time and time range achievements subscribed to a single event.
+ * A day table with a slot for every day of the leap year and a minute table with a slot for every minute of the day
+ * list the achievements which can fire then, so the candidates of the current clock reading are found with one
+ * array lookup. Achievements are referenced by their dense index in the {@link net.csongradyp.badger.AchievementDefinition}.
+ */
+public class CalendarIndex {
+
+    public static final int DAYS_PER_YEAR = 366;
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int[] NONE = new int[0];
+    private static final CalendarIndex EMPTY = new CalendarIndex(new IAchievement[0], new int[0]);
+
+    private final int[][] dayTable = new int[DAYS_PER_YEAR + 1][];
+    private final int[][] minuteTable = new int[MINUTES_PER_DAY][];
+    private final boolean empty;
+
+    private CalendarIndex(final ByteBuffer input) {
+        readTable(input, dayTable);
+        readTable(input, minuteTable);
+        empty = false;
+    }
+
+    /**
+     * @param catalog            every defined achievement by its index.
+     * @param achievementIndexes indexes of the date, time and time range achievements to index.
+     */
+    public CalendarIndex(final IAchievement[] catalog, final int[] achievementIndexes) {
+        final TableBuilder days = new TableBuilder(dayTable);
+        final TableBuilder minutes = new TableBuilder(minuteTable);
+        forEachSlot(catalog, achievementIndexes, days::count, minutes::count);
+        days.allocate();
+        minutes.allocate();
+        forEachSlot(catalog, achievementIndexes, days::fill, minutes::fill);
+        empty = achievementIndexes.length == 0;
+    }
+
+    public static CalendarIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Restores an index written by {@link #writeTo(DataOutput)} without recomputing its slots.
+     */
+    public static CalendarIndex readFrom(final ByteBuffer input) {
+        return input.get() != 0 ? EMPTY : new CalendarIndex(input);
+    }
+
+    private static void readTable(final ByteBuffer input, final int[][] table) {
+        for (int slot = 0; slot < table.length; slot++) {
+            final int size = input.getInt();
+            table[slot] = size == 0 ? NONE : new int[size];
+            for (int i = 0; i < size; i++) {
+                table[slot][i] = input.getInt();
+            }
+        }
+    }
+
+    public void writeTo(final DataOutput output) throws IOException {
+        output.writeBoolean(empty);
+        if (!empty) {
+            writeTable(output, dayTable);
+            writeTable(output, minuteTable);
+        }
+    }
+
+    private static void writeTable(final DataOutput output, final int[][] table) throws IOException {
+        for (int[] slot : table) {
+            output.writeInt(slot.length);
+            for (int achievementIndex : slot) {
+                output.writeInt(achievementIndex);
+            }
+        }
+    }
+
+    private static void forEachSlot(final IAchievement[] catalog, final int[] achievementIndexes, final SlotConsumer days, final SlotConsumer minutes) {
+        for (int achievementIndex : achievementIndexes) {
+            final IAchievement achievement = catalog[achievementIndex];
+            if (achievement.getType() == AchievementType.DATE) {
+                for (DateTrigger trigger : ((DateAchievementBean) achievement).getTrigger()) {
+                    days.accept(trigger.getDayOfYear(), achievementIndex);
+                }
+            } else if (achievement.getType() == AchievementType.TIME) {
+                for (TimeTrigger trigger : ((TimeAchievementBean) achievement).getTrigger()) {
+                    minutes.accept(trigger.getMinuteOfDay(), achievementIndex);
+                }
+            } else if (achievement.getType() == AchievementType.TIME_RANGE) {
+                for (TimeTriggerPair trigger : ((TimeRangeAchievementBean) achievement).getTrigger()) {
+                    for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                        if (trigger.fire(minute)) {
+                            minutes.accept(minute, achievementIndex);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param dayOfYear day of the year on a leap year calendar.
+     * @return indexes of the date achievements which can fire on the given day. Must not be modified.
+     */
+    public int[] getFiringOnDay(final int dayOfYear) {
+        return dayTable[dayOfYear];
+    }
+
+    /**
+     * @param minuteOfDay minute of the day.
+     * @return indexes of the time and time range achievements which can fire in the given minute. Must not be modified.
+     */
+    public int[] getFiringAtMinute(final int minuteOfDay) {
+        return minuteTable[minuteOfDay];
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    @FunctionalInterface
+    private interface SlotConsumer {
+
+        void accept(int slot, int achievementIndex);
+    }
+
+    /**
+     * Builds a table in two passes: the first counts the distinct achievements of each slot, the second fills the
+     * exactly sized slot arrays. Slots without achievements share one empty array.
+     */
+    private static final class TableBuilder {
+
+        private final int[][] table;
+        private final int[] counts;
+        private final int[] lastAdded;
+
+        private TableBuilder(final int[][] table) {
+            this.table = table;
+            counts = new int[table.length];
+            lastAdded = new int[table.length];
+            Arrays.fill(lastAdded, -1);
+        }
+
+        private void count(final int slot, final int achievementIndex) {
+            if (lastAdded[slot] != achievementIndex) {
+                lastAdded[slot] = achievementIndex;
+                counts[slot]++;
+            }
+        }
+
+        private void allocate() {
+            for (int slot = 0; slot < table.length; slot++) {
+                table[slot] = counts[slot] == 0 ? NONE : new int[counts[slot]];
+                counts[slot] = 0;
+            }
+            Arrays.fill(lastAdded, -1);
+        }
+
+        private void fill(final int slot, final int achievementIndex) {
+            if (lastAdded[slot] != achievementIndex) {
+                lastAdded[slot] = achievementIndex;
+                table[slot][counts[slot]++] = achievementIndex;
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package net.csongradyp.badger.provider.index;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import net.csongradyp.badger.domain.achievement.IAchievement;
+import net.csongradyp.badger.domain.achievement.ScoreAchievementBean;
+import net.csongradyp.badger.domain.achievement.trigger.ScoreTrigger;
+
+/**
+ * Merged view of every {@link ScoreTrigger} threshold of the score achievements subscribed to a single event.
+ * Thresholds are kept in sorted primitive arrays, so the levels fired by a score change are found with a binary search
+ * range scan and the cost of an update depends on the number of fired thresholds instead of the size of the catalog.
+ * Achievements are referenced by their dense index in the {@link net.csongradyp.badger.AchievementDefinition}.
+ */
+public class ScoreThresholdIndex {
+
+    private static final ScoreThresholdIndex EMPTY = new ScoreThresholdIndex(new IAchievement[0], new int[0]);
+
+    private final Thresholds greaterThan;
+    private final Thresholds equals;
+    private final Thresholds lessThan;
+
+    /**
+     * @param catalog                 every defined achievement by its index.
+     * @param scoreAchievementIndexes indexes of the score achievements to merge.
+     */
+    public ScoreThresholdIndex(final IAchievement[] catalog, final int[] scoreAchievementIndexes) {
+        final List<Threshold> greaterThanThresholds = new ArrayList<>();
+        final List<Threshold> equalsThresholds = new ArrayList<>();
+        final List<Threshold> lessThanThresholds = new ArrayList<>();
+        for (int achievementIndex : scoreAchievementIndexes) {
+            final ScoreAchievementBean achievement = (ScoreAchievementBean) catalog[achievementIndex];
+            final List<ScoreTrigger> triggers = achievement.getTrigger();
+            for (int i = 0; i < triggers.size() && i < achievement.getMaxLevel(); i++) {
+                final ScoreTrigger trigger = triggers.get(i);
+                final Threshold threshold = new Threshold(trigger.getTrigger(), achievementIndex, i + 1);
+                switch (trigger.getOperation()) {
+                    case GREATER_THAN:
+                        greaterThanThresholds.add(threshold);
+                        break;
+                    case LESS_THAN:
+                        lessThanThresholds.add(threshold);
+                        break;
+                    case EQUALS:
+                        equalsThresholds.add(threshold);
+                        break;
+                }
+            }
+        }
+        greaterThan = new Thresholds(greaterThanThresholds);
+        equals = new Thresholds(equalsThresholds);
+        lessThan = new Thresholds(lessThanThresholds);
+    }
+
+    private ScoreThresholdIndex(final Thresholds greaterThan, final Thresholds equals, final Thresholds lessThan) {
+        this.greaterThan = greaterThan;
+        this.equals = equals;
+        this.lessThan = lessThan;
+    }
+
+    public static ScoreThresholdIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Restores an index written by {@link #writeTo(DataOutput)} without sorting its thresholds again.
+     */
+    public static ScoreThresholdIndex readFrom(final ByteBuffer input) {
+        final ScoreThresholdIndex index = new ScoreThresholdIndex(new Thresholds(input), new Thresholds(input), new Thresholds(input));
+        return index.isEmpty() ? EMPTY : index;
+    }
+
+    public void writeTo(final DataOutput output) throws IOException {
+        greaterThan.writeTo(output);
+        equals.writeTo(output);
+        lessThan.writeTo(output);
+    }
+
+    /**
+     * Passes every (achievement index, level) pair to the consumer which fires when the score changes from {@code oldScore}
+     * to {@code newScore}. Greater than thresholds fire when they are crossed upwards, equals thresholds when the new
+     * score hits them and less than thresholds whenever the new score is at or below them.
+     *
+     * @param oldScore score before the update. Use {@link Long#MIN_VALUE} to treat every threshold below the new score as crossed.
+     * @param newScore score after the update.
+     * @param consumer callback for the fired achievement levels.
+     */
+    public void forEachFired(final long oldScore, final long newScore, final ThresholdConsumer consumer) {
+        if (oldScore < newScore) {
+            greaterThan.forEach(greaterThan.upperBound(oldScore), greaterThan.upperBound(newScore), consumer);
+        }
+        equals.forEach(equals.lowerBound(newScore), equals.upperBound(newScore), consumer);
+        lessThan.forEach(lessThan.lowerBound(newScore), lessThan.size(), consumer);
+    }
+
+    /**
+     * Passes every (achievement index, level) pair to the consumer which fires while the counter is incremented one by one
+     * from {@code oldScore} to {@code newScore}, as if every intermediate value had been submitted on its own.
+     * Equals thresholds are hit by any intermediate value and less than thresholds by the first one.
+     *
+     * @param oldScore counter value before the increments.
+     * @param newScore counter value after the increments.
+     * @param consumer callback for the fired achievement levels.
+     */
+    public void forEachCounted(final long oldScore, final long newScore, final ThresholdConsumer consumer) {
+        if (oldScore < newScore) {
+            greaterThan.forEach(greaterThan.upperBound(oldScore), greaterThan.upperBound(newScore), consumer);
+            equals.forEach(equals.upperBound(oldScore), equals.upperBound(newScore), consumer);
+            lessThan.forEach(lessThan.upperBound(oldScore), lessThan.size(), consumer);
+        }
+    }
+
+    public boolean isEmpty() {
+        return greaterThan.size() == 0 && equals.size() == 0 && lessThan.size() == 0;
+    }
+
+    @FunctionalInterface
+    public interface ThresholdConsumer {
+
+        void accept(int achievementIndex, int level);
+    }
+
+    private static final class Threshold {
+
+        private final long value;
+        private final int achievement;
+        private final int level;
+
+        private Threshold(final long value, final int achievement, final int level) {
+            this.value = value;
+            this.achievement = achievement;
+            this.level = level;
+        }
+    }
+
+    private static final class Thresholds {
+
+        private final long[] values;
+        private final int[] achievements;
+        private final int[] levels;
+
+        private Thresholds(final List<Threshold> thresholds) {
+            thresholds.sort(Comparator.<Threshold>comparingLong(threshold -> threshold.value).thenComparingInt(threshold -> threshold.level));
+            values = new long[thresholds.size()];
+            achievements = new int[thresholds.size()];
+            levels = new int[thresholds.size()];
+            for (int i = 0; i < thresholds.size(); i++) {
+                final Threshold threshold = thresholds.get(i);
+                values[i] = threshold.value;
+                achievements[i] = threshold.achievement;
+                levels[i] = threshold.level;
+            }
+        }
+
+        private Thresholds(final ByteBuffer input) {
+            final int size = input.getInt();
+            values = new long[size];
+            achievements = new int[size];
+            levels = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = input.getLong();
+                achievements[i] = input.getInt();
+                levels[i] = input.getInt();
+            }
+        }
+
+        private void writeTo(final DataOutput output) throws IOException {
+            output.writeInt(values.length);
+            for (int i = 0; i < values.length; i++) {
+                output.writeLong(values[i]);
+                output.writeInt(achievements[i]);
+                output.writeInt(levels[i]);
+            }
+        }
+
+        private int size() {
+            return values.length;
+        }
+
+        /**
+         * @return index of the first threshold which is greater than or equal to the given value.
+         */
+        private int lowerBound(final long value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (values[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return index of the first threshold which is strictly greater than the given value.
+         */
+        private int upperBound(final long value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (values[middle] <= value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void forEach(final int from, final int to, final ThresholdConsumer consumer) {
+            for (int i = from; i < to; i++) {
+                consumer.accept(achievements[i], levels[i]);
+            }
+        }
+    }
+}
@@ -1,39 +1,20 @@
 package net.csongradyp.badger.provider.unlock;
 
-import java.util.Date;
-import java.util.Optional;
-import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
 import javax.inject.Named;
 import net.csongradyp.badger.domain.achievement.CompositeAchievementBean;
-import net.csongradyp.badger.event.IAchievementUnlockedEvent;
-import net.csongradyp.badger.event.message.AchievementUnlockedEvent;
-import net.csongradyp.badger.factory.UnlockedEventFactory;
-import net.csongradyp.badger.provider.date.DateProvider;
+import net.csongradyp.badger.provider.UnlockCandidate;
+import net.csongradyp.badger.provider.date.ClockReading;
 
 @Named
 public class CompositeUnlockedProvider extends UnlockedProvider<CompositeAchievementBean> {
 
-    @Inject
-    private DateProvider dateProvider;
-    @Inject
-    private UnlockedEventFactory unlockedEventFactory;
-
     @Override
-    public Optional<IAchievementUnlockedEvent> getUnlockable(final String userId, final CompositeAchievementBean compositeAchievement, final Long score) {
-        final Date currentDate = dateProvider.currentDate();
-        final Date currentTime = dateProvider.currentTime();
-        if (compositeAchievement.getRelation().evaluate(score, currentDate, currentTime) & !isUnlocked(userId, compositeAchievement.getId())) {
-            final AchievementUnlockedEvent achievementUnlockedEvent = unlockedEventFactory.createEvent(userId, compositeAchievement, score.toString());
-            return Optional.of(achievementUnlockedEvent);
+    public Collection<UnlockCandidate> getUnlockables(final String userId, final int achievementIndex, final CompositeAchievementBean compositeAchievement, final Long score, final ClockReading now) {
+        if (compositeAchievement.getCompiledRelation().evaluate(score, now.getDayOfYear(), now.getMinuteOfDay())) {
+            return Collections.singletonList(UnlockCandidate.ofScore(achievementIndex, 1, score));
         }
-        return Optional.empty();
-    }
-
-    void setUnlockedEventFactory(final UnlockedEventFactory unlockedEventFactory) {
-        this.unlockedEventFactory = unlockedEventFactory;
-    }
-
-    public void setDateProvider(final DateProvider dateProvider) {
-        this.dateProvider = dateProvider;
+        return Collections.emptyList();
     }
 }
@@ -1,34 +1,25 @@
 package net.csongradyp.badger.provider.unlock;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import javax.inject.Inject;
 import javax.inject.Named;
 import net.csongradyp.badger.domain.achievement.ScoreRangeAchievementBean;
 import net.csongradyp.badger.domain.achievement.trigger.ScoreTriggerPair;
-import net.csongradyp.badger.event.IAchievementUnlockedEvent;
-import net.csongradyp.badger.event.message.AchievementUnlockedEvent;
-import net.csongradyp.badger.factory.UnlockedEventFactory;
+import net.csongradyp.badger.provider.UnlockCandidate;
+import net.csongradyp.badger.provider.date.ClockReading;
 
 @Named
 public class ScoreRangeUnlockedProvider extends UnlockedProvider<ScoreRangeAchievementBean> {
 
-    @Inject
-    private UnlockedEventFactory unlockedEventFactory;
-
     @Override
-    public Optional<IAchievementUnlockedEvent> getUnlockable(final String userId, final ScoreRangeAchievementBean timeAchievement, final Long score) {
+    public Collection<UnlockCandidate> getUnlockables(final String userId, final int achievementIndex, final ScoreRangeAchievementBean timeAchievement, final Long score, final ClockReading now) {
         final List<ScoreTriggerPair> timeTriggers = timeAchievement.getTrigger();
         for (ScoreTriggerPair trigger : timeTriggers) {
-            if(trigger.fire(score) && !isUnlocked(userId, timeAchievement.getId())) {
-                final AchievementUnlockedEvent achievementUnlockedEvent = unlockedEventFactory.createEvent(userId, timeAchievement, String.valueOf(score));
-                return Optional.of(achievementUnlockedEvent);
+            if(trigger.fire(score)) {
+                return Collections.singletonList(UnlockCandidate.ofScore(achievementIndex, 1, score));
             }
         }
-        return Optional.empty();
-    }
-
-    void setUnlockedEventFactory(final UnlockedEventFactory unlockedEventFactory) {
-        this.unlockedEventFactory = unlockedEventFactory;
+        return Collections.emptyList();
     }
 }
@@ -1,44 +1,62 @@
 package net.csongradyp.badger.provider.unlock;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import javax.inject.Inject;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import javax.inject.Named;
 import net.csongradyp.badger.domain.IAchievementBean;
 import net.csongradyp.badger.domain.achievement.ScoreAchievementBean;
 import net.csongradyp.badger.domain.achievement.trigger.ScoreTrigger;
-import net.csongradyp.badger.event.IAchievementUnlockedEvent;
-import net.csongradyp.badger.event.message.AchievementUnlockedEvent;
-import net.csongradyp.badger.factory.UnlockedEventFactory;
+import net.csongradyp.badger.provider.UnlockCandidate;
+import net.csongradyp.badger.provider.date.ClockReading;
+import net.csongradyp.badger.provider.index.ScoreThresholdIndex;
 
 @Named
 public class ScoreUnlockedProvider extends UnlockedProvider<ScoreAchievementBean> {
 
-    @Inject
-    private UnlockedEventFactory unlockedEventFactory;
-
     @Override
-    public Optional<IAchievementUnlockedEvent> getUnlockable(final String userId, final ScoreAchievementBean achievementBean, final Long currentValue) {
+    public Collection<UnlockCandidate> getUnlockables(final String userId, final int achievementIndex, final ScoreAchievementBean achievementBean, final Long currentValue, final ClockReading now) {
+        final Collection<UnlockCandidate> unlockables = new ArrayList<>();
         final List<ScoreTrigger> triggers = achievementBean.getTrigger();
         for (int i = 0; i < triggers.size(); i++) {
             final Integer level = i + 1;
-            if (triggers.get(i).fire(currentValue) && isLevelValid(achievementBean, level) && !isLevelUnlocked(userId, achievementBean.getId(), level)) {
-                final AchievementUnlockedEvent achievementUnlockedEvent = unlockedEventFactory.createEvent(userId, achievementBean, level, currentValue);
-                return Optional.of(achievementUnlockedEvent);
+            if (triggers.get(i).fire(currentValue) && isLevelValid(achievementBean, level)) {
+                unlockables.add(UnlockCandidate.ofScore(achievementIndex, level, currentValue));
             }
         }
-        return Optional.empty();
-    }
-
-    private boolean isLevelValid(final IAchievementBean counterAchievement, final Integer triggerIndex) {
-        return counterAchievement.getMaxLevel() >= triggerIndex;
+        return unlockables;
     }
 
-    private Boolean isLevelUnlocked(final String userId, final String id, final Integer level) {
-        return repository.achievement().isUnlocked(userId, id, level);
+    /**
+     * Collects every level of the score achievements in the index which was fired by the score update.
+     * Levels of the same achievement are returned next to each other in ascending order.
+     *
+     * @param index      merged thresholds of the score achievements subscribed to the updated event.
+     * @param oldScore   event score before the update.
+     * @param newScore   event score after the update.
+     * @param counted    {@code true} if the score was reached by incrementing the counter from the old score,
+     *                   so every intermediate value counts as submitted.
+     * @return candidates of the fired achievement levels.
+     */
+    public Collection<UnlockCandidate> getUnlockables(final String userId, final ScoreThresholdIndex index, final Long oldScore,
+                                                      final Long newScore, final boolean counted) {
+        final Map<Integer, SortedSet<Integer>> firedLevels = new LinkedHashMap<>();
+        final ScoreThresholdIndex.ThresholdConsumer collector = (achievementIndex, level) -> firedLevels.computeIfAbsent(achievementIndex, key -> new TreeSet<>()).add(level);
+        if (counted) {
+            index.forEachCounted(oldScore, newScore, collector);
+        } else {
+            index.forEachFired(oldScore, newScore, collector);
+        }
+        final Collection<UnlockCandidate> unlockables = new ArrayList<>();
+        firedLevels.forEach((achievementIndex, levels) -> levels.forEach(level -> unlockables.add(UnlockCandidate.ofScore(achievementIndex, level, newScore))));
+        return unlockables;
     }
 
-    void setUnlockedEventFactory(final UnlockedEventFactory unlockedEventFactory) {
-        this.unlockedEventFactory = unlockedEventFactory;
+    private boolean isLevelValid(final IAchievementBean counterAchievement, final Integer triggerIndex) {
+        return counterAchievement.getMaxLevel() >= triggerIndex;
     }
 }
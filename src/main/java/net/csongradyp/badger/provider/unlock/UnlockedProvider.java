@@ -14,4 +14,7 @@ abstract class UnlockedProvider<TYPE extends IAchievement> implements IUnlockedP
         return repository.achievement().isUnlocked(userId, achievementId);
     }
 
+    public void setRepository(final Repository repository) {
+        this.repository = repository;
+    }
 }
@@ -1,7 +1,14 @@
 package net.csongradyp.badger.repository;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import net.csongradyp.badger.domain.IAchievementBean;
 
 public interface AchievementRepository {
@@ -10,7 +17,58 @@ public interface AchievementRepository {
 
     void unlock(final String userId, final String achievementId, final Integer level);
 
-     void clearAchievements(final String userId);
+    /**
+     * Unlocks every given level of every given achievement with one batched write.
+     * The default implementation unlocks the levels one by one, implementations should override it
+     * to persist the whole batch in a single round trip.
+     *
+     * @param levels levels to unlock mapped by achievement id.
+     */
+    default void unlock(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        levels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> unlock(userId, achievementId, level)));
+    }
+
+    /**
+     * Atomically unlocks the level of the achievement if it is not unlocked yet.
+     * The default implementation checks and unlocks the level in two calls, implementations should override it
+     * with a single conditional write.
+     *
+     * @return {@code true} if the call has actually unlocked the level.
+     */
+    default boolean unlockIfAbsent(final String userId, final String achievementId, final Integer level) {
+        if (isUnlocked(userId, achievementId, level)) {
+            return false;
+        }
+        unlock(userId, achievementId, level);
+        return true;
+    }
+
+    /**
+     * Atomically unlocks every given level which is not unlocked yet with one batched write.
+     * The default implementation resolves the already unlocked levels with {@link #getUnlockedLevels(String, Map)} and
+     * unlocks the rest with {@link #unlock(String, Map)}, implementations should override it with a single conditional write.
+     *
+     * @param levels levels to unlock mapped by achievement id.
+     * @return levels actually unlocked by the call mapped by achievement id. Achievements without new levels may be missing.
+     */
+    default Map<String, Set<Integer>> unlockIfAbsent(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        final Map<String, Set<Integer>> unlockedLevels = getUnlockedLevels(userId, levels);
+        final Map<String, Set<Integer>> newLevels = new LinkedHashMap<>();
+        levels.forEach((achievementId, achievementLevels) -> {
+            final Set<Integer> unlocked = unlockedLevels.getOrDefault(achievementId, Collections.emptySet());
+            achievementLevels.forEach(level -> {
+                if (!unlocked.contains(level)) {
+                    newLevels.computeIfAbsent(achievementId, id -> new TreeSet<>()).add(level);
+                }
+            });
+        });
+        if (!newLevels.isEmpty()) {
+            unlock(userId, newLevels);
+        }
+        return newLevels;
+    }
+
+    void clearAchievements(final String userId);
 
     Long getNumberOfUnlocked();
 
@@ -26,6 +84,24 @@ public interface AchievementRepository {
 
     Boolean isUnlocked(final String userId, final String id, final Integer level);
 
+    /**
+     * Returns which of the given levels are already unlocked.
+     * The default implementation checks the levels one by one, implementations should override it
+     * to resolve the whole batch in a single round trip.
+     *
+     * @param levels levels to check mapped by achievement id.
+     * @return already unlocked levels mapped by achievement id. Achievements without unlocked levels may be missing.
+     */
+    default Map<String, Set<Integer>> getUnlockedLevels(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        final Map<String, Set<Integer>> unlockedLevels = new HashMap<>();
+        levels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> {
+            if (isUnlocked(userId, achievementId, level)) {
+                unlockedLevels.computeIfAbsent(achievementId, id -> new HashSet<>()).add(level);
+            }
+        }));
+        return unlockedLevels;
+    }
+
     Date getAcquireDate(final String userId, final String achievementId);
 
 }
@@ -1,11 +1,72 @@
 package net.csongradyp.badger.repository;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public interface EventRepository {
 
     Long increment(final String userId, final String event);
 
+    /**
+     * Atomically increments the event counter by the given amount.
+     *
+     * @return new value of the event counter.
+     */
+    Long increment(final String userId, final String event, final Long amount);
+
     Long setScore(final String userId, final String event, final Long newScore);
 
+    /**
+     * Applies the score updates of several events of the owner with one batched call, each of them atomically.
+     * The default implementation applies the updates one by one with {@link #increment(String, String, Long)}
+     * and {@link #setScoreIfDifferent(String, String, Long)}.
+     *
+     * @param updates score updates mapped by event name.
+     * @return stored score before and after the update mapped by event name.
+     */
+    default Map<String, ScoreChange> updateScores(final String userId, final Map<String, ScoreUpdate> updates) {
+        final Map<String, ScoreChange> scoreChanges = new LinkedHashMap<>();
+        updates.forEach((event, update) -> {
+            if (update.getScore() == null) {
+                final Long newScore = increment(userId, event, update.getIncrements());
+                scoreChanges.put(event, new ScoreChange(newScore - update.getIncrements(), newScore));
+            } else {
+                scoreChanges.put(event, setScoreIfDifferent(userId, event, update.getScore() + update.getIncrements()));
+            }
+        });
+        return scoreChanges;
+    }
+
+    /**
+     * Atomically sets the score of the event if it differs from the stored one.
+     * The default implementation reads and overwrites the score, implementations should override it
+     * with a single conditional write.
+     *
+     * @return stored score before and after the call.
+     */
+    default ScoreChange setScoreIfDifferent(final String userId, final String event, final Long score) {
+        final Long oldScore = scoreOf(userId, event);
+        if (oldScore.equals(score)) {
+            return new ScoreChange(oldScore, oldScore);
+        }
+        return new ScoreChange(oldScore, setScore(userId, event, score));
+    }
+
+    /**
+     * Atomically sets the score of the event if it is greater than the stored one.
+     * The default implementation reads and overwrites the score, implementations should override it
+     * with a single conditional write.
+     *
+     * @return stored score before and after the call.
+     */
+    default ScoreChange setScoreIfGreater(final String userId, final String event, final Long score) {
+        final Long oldScore = scoreOf(userId, event);
+        if (oldScore >= score) {
+            return new ScoreChange(oldScore, oldScore);
+        }
+        return new ScoreChange(oldScore, setScore(userId, event, score));
+    }
+
     Long scoreOf(final String userId, final String event);
 
     Boolean resetCounters(final String userId);
@@ -0,0 +1,30 @@
+package net.csongradyp.badger.repository;
+
+/**
+ * Result of a conditional score update: the stored score before the call and the stored score after it.
+ */
+public class ScoreChange {
+
+    private final Long oldScore;
+    private final Long newScore;
+
+    public ScoreChange(final Long oldScore, final Long newScore) {
+        this.oldScore = oldScore;
+        this.newScore = newScore;
+    }
+
+    public Long getOldScore() {
+        return oldScore;
+    }
+
+    public Long getNewScore() {
+        return newScore;
+    }
+
+    /**
+     * @return {@code true} if the call has actually updated the stored score.
+     */
+    public boolean isChanged() {
+        return !oldScore.equals(newScore);
+    }
+}
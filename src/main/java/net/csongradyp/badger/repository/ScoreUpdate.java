@@ -0,0 +1,40 @@
+package net.csongradyp.badger.repository;
+
+/**
+ * Update of an event score: sets the score if one is given and then adds the increments.
+ */
+public class ScoreUpdate {
+
+    private final Long score;
+    private final long increments;
+
+    public ScoreUpdate(final Long score, final long increments) {
+        this.score = score;
+        this.increments = increments;
+    }
+
+    /**
+     * @return update which overwrites the stored score.
+     */
+    public static ScoreUpdate set(final Long score) {
+        return new ScoreUpdate(score, 0L);
+    }
+
+    /**
+     * @return score to set or {@code null} if the increments are added to the stored score.
+     */
+    public Long getScore() {
+        return score;
+    }
+
+    public long getIncrements() {
+        return increments;
+    }
+
+    /**
+     * @return the score after the update of the given stored score.
+     */
+    public Long applyTo(final Long storedScore) {
+        return (score != null ? score : storedScore) + increments;
+    }
+}
@@ -0,0 +1,412 @@
+package net.csongradyp.badger.repository.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import net.csongradyp.badger.domain.IAchievementBean;
+import net.csongradyp.badger.repository.BadgerRepository;
+import net.csongradyp.badger.repository.ScoreChange;
+import net.csongradyp.badger.repository.ScoreUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link BadgerRepository} decorator which keeps the counter and unlock state of the active owners in memory.
+ * <ul>
+ * <li>Concurrent misses of the same owner are coalesced into one load of the backing store.</li>
+ * <li>Counter updates are applied in memory and flushed to the backing store in timed write-behind batches,
+ * one {@link BadgerRepository#updateScores(String, Map)} call per owner.</li>
+ * <li>Unlocks and resets are written through.</li>
+ * <li>Owners idle for longer than the idle timeout, and the least recently used owners above the size limit,
+ * are flushed and evicted on every flush.</li>
+ * </ul>
+ * The decorator assumes it is the only writer of the backing store. Call {@link #close()} on shutdown to flush
+ * the pending counter updates.
+ */
+public class CachingBadgerRepository implements BadgerRepository, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingBadgerRepository.class);
+
+    public static final int DEFAULT_MAX_USERS = 10000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final BadgerRepository backingRepository;
+    private final int maxUsers;
+    private final long idleTimeoutNanos;
+    private final Map<String, UserState> users = new ConcurrentHashMap<>();
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+
+    public CachingBadgerRepository(final BadgerRepository backingRepository) {
+        this(backingRepository, DEFAULT_MAX_USERS, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param backingRepository repository to decorate.
+     * @param maxUsers          maximum number of cached owners.
+     * @param idleTimeout       time after an owner is evicted when its state is not accessed.
+     * @param flushInterval     time between write-behind flushes of the counter updates.
+     * @param unit              unit of the idle timeout and the flush interval.
+     */
+    public CachingBadgerRepository(final BadgerRepository backingRepository, final int maxUsers, final long idleTimeout, final long flushInterval, final TimeUnit unit) {
+        this.backingRepository = backingRepository;
+        this.maxUsers = maxUsers;
+        idleTimeoutNanos = unit.toNanos(idleTimeout);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "badger-cache-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndEvict, flushInterval, flushInterval, unit);
+    }
+
+    private <T> T withUser(final String userId, final Function<UserState, T> action) {
+        while (true) {
+            final UserState state = users.computeIfAbsent(userId, id -> new UserState());
+            synchronized (state) {
+                if (!state.evicted) {
+                    state.lastAccess = System.nanoTime();
+                    return action.apply(state);
+                }
+            }
+        }
+    }
+
+    private Long loadScore(final String userId, final UserState state, final String event) {
+        Long score = state.scores.get(event);
+        if (score == null) {
+            score = backingRepository.scoreOf(userId, event);
+            state.scores.put(event, score);
+        }
+        return score;
+    }
+
+    private Long storeScore(final String userId, final UserState state, final String event, final Long score) {
+        state.scores.put(event, score);
+        state.dirtyScores.put(event, score);
+        dirtyUsers.add(userId);
+        return score;
+    }
+
+    @Override
+    public Long increment(final String userId, final String event) {
+        return increment(userId, event, 1L);
+    }
+
+    @Override
+    public Long increment(final String userId, final String event, final Long amount) {
+        return withUser(userId, state -> storeScore(userId, state, event, loadScore(userId, state, event) + amount));
+    }
+
+    @Override
+    public Long setScore(final String userId, final String event, final Long newScore) {
+        return withUser(userId, state -> storeScore(userId, state, event, newScore));
+    }
+
+    @Override
+    public Map<String, ScoreChange> updateScores(final String userId, final Map<String, ScoreUpdate> updates) {
+        return withUser(userId, state -> {
+            final Map<String, ScoreChange> scoreChanges = new LinkedHashMap<>();
+            updates.forEach((event, update) -> {
+                final Long oldScore = loadScore(userId, state, event);
+                final Long newScore = update.applyTo(oldScore);
+                scoreChanges.put(event, new ScoreChange(oldScore, oldScore.equals(newScore) ? oldScore : storeScore(userId, state, event, newScore)));
+            });
+            return scoreChanges;
+        });
+    }
+
+    @Override
+    public ScoreChange setScoreIfDifferent(final String userId, final String event, final Long score) {
+        return withUser(userId, state -> {
+            final Long oldScore = loadScore(userId, state, event);
+            return new ScoreChange(oldScore, oldScore.equals(score) ? oldScore : storeScore(userId, state, event, score));
+        });
+    }
+
+    @Override
+    public ScoreChange setScoreIfGreater(final String userId, final String event, final Long score) {
+        return withUser(userId, state -> {
+            final Long oldScore = loadScore(userId, state, event);
+            return new ScoreChange(oldScore, oldScore >= score ? oldScore : storeScore(userId, state, event, score));
+        });
+    }
+
+    @Override
+    public Long scoreOf(final String userId, final String event) {
+        return withUser(userId, state -> loadScore(userId, state, event));
+    }
+
+    @Override
+    public Boolean resetCounters(final String userId) {
+        return withUser(userId, state -> {
+            state.scores.clear();
+            state.dirtyScores.clear();
+            return backingRepository.resetCounters(userId);
+        });
+    }
+
+    @Override
+    public void unlock(final String userId, final String achievementId) {
+        withUser(userId, state -> {
+            backingRepository.unlock(userId, achievementId);
+            state.unlocked.put(achievementId, Boolean.TRUE);
+            return null;
+        });
+    }
+
+    @Override
+    public void unlock(final String userId, final String achievementId, final Integer level) {
+        withUser(userId, state -> {
+            backingRepository.unlock(userId, achievementId, level);
+            state.markUnlocked(achievementId, level);
+            return null;
+        });
+    }
+
+    @Override
+    public void unlock(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        withUser(userId, state -> {
+            backingRepository.unlock(userId, levels);
+            levels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> state.markUnlocked(achievementId, level)));
+            return null;
+        });
+    }
+
+    @Override
+    public boolean unlockIfAbsent(final String userId, final String achievementId, final Integer level) {
+        return withUser(userId, state -> {
+            if (Boolean.TRUE.equals(state.getLevelUnlocked(achievementId, level))) {
+                return false;
+            }
+            final boolean unlocked = backingRepository.unlockIfAbsent(userId, achievementId, level);
+            state.markUnlocked(achievementId, level);
+            return unlocked;
+        });
+    }
+
+    @Override
+    public Map<String, Set<Integer>> unlockIfAbsent(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        return withUser(userId, state -> {
+            final Map<String, Set<Integer>> unknownLevels = new LinkedHashMap<>();
+            levels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> {
+                if (!Boolean.TRUE.equals(state.getLevelUnlocked(achievementId, level))) {
+                    unknownLevels.computeIfAbsent(achievementId, id -> new TreeSet<>()).add(level);
+                }
+            }));
+            if (unknownLevels.isEmpty()) {
+                return unknownLevels;
+            }
+            final Map<String, Set<Integer>> newLevels = backingRepository.unlockIfAbsent(userId, unknownLevels);
+            unknownLevels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> state.markUnlocked(achievementId, level)));
+            return newLevels;
+        });
+    }
+
+    @Override
+    public Map<String, Set<Integer>> getUnlockedLevels(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        return withUser(userId, state -> {
+            final Map<String, Set<Integer>> unlockedLevels = new HashMap<>();
+            final Map<String, Set<Integer>> unknownLevels = new LinkedHashMap<>();
+            levels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> {
+                final Boolean unlocked = state.getLevelUnlocked(achievementId, level);
+                if (unlocked == null) {
+                    unknownLevels.computeIfAbsent(achievementId, id -> new TreeSet<>()).add(level);
+                } else if (unlocked) {
+                    unlockedLevels.computeIfAbsent(achievementId, id -> new TreeSet<>()).add(level);
+                }
+            }));
+            if (!unknownLevels.isEmpty()) {
+                final Map<String, Set<Integer>> loadedLevels = backingRepository.getUnlockedLevels(userId, unknownLevels);
+                unknownLevels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> {
+                    final boolean unlocked = loadedLevels.getOrDefault(achievementId, Collections.emptySet()).contains(level);
+                    state.levelsOf(achievementId).put(level, unlocked);
+                    if (unlocked) {
+                        unlockedLevels.computeIfAbsent(achievementId, id -> new TreeSet<>()).add(level);
+                    }
+                }));
+            }
+            return unlockedLevels;
+        });
+    }
+
+    @Override
+    public Boolean isUnlocked(final String userId, final String id) {
+        return withUser(userId, state -> state.unlocked.computeIfAbsent(id, key -> backingRepository.isUnlocked(userId, id)));
+    }
+
+    @Override
+    public Boolean isUnlocked(final String userId, final String id, final Integer level) {
+        return withUser(userId, state -> state.levelsOf(id).computeIfAbsent(level, key -> backingRepository.isUnlocked(userId, id, level)));
+    }
+
+    @Override
+    public void clearAchievements(final String userId) {
+        withUser(userId, state -> {
+            state.unlocked.clear();
+            state.unlockedLevels.clear();
+            backingRepository.clearAchievements(userId);
+            return null;
+        });
+    }
+
+    @Override
+    public Long getNumberOfUnlocked() {
+        return backingRepository.getNumberOfUnlocked();
+    }
+
+    @Override
+    public Collection<IAchievementBean> getAll(final String userId) {
+        return backingRepository.getAll(userId);
+    }
+
+    @Override
+    public Date getAcquireDate(final String userId, final String achievementId) {
+        return backingRepository.getAcquireDate(userId, achievementId);
+    }
+
+    /**
+     * Writes every pending counter update to the backing store. The counters of an owner are written while holding
+     * its state, so a concurrent reset can not be overwritten by the scores copied before it.
+     */
+    public synchronized void flush() {
+        for (String userId : dirtyUsers) {
+            dirtyUsers.remove(userId);
+            final UserState state = users.get(userId);
+            if (state != null) {
+                synchronized (state) {
+                    if (!state.dirtyScores.isEmpty()) {
+                        write(userId, state);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the pending counter updates of the owner are written, otherwise the owner stays dirty.
+     */
+    private boolean write(final String userId, final UserState state) {
+        try {
+            backingRepository.updateScores(userId, overwritesOf(state.dirtyScores));
+            state.dirtyScores.clear();
+            return true;
+        } catch (RuntimeException e) {
+            LOG.error("Failed to flush the counters of owner {}, retrying with the next flush", userId, e);
+            dirtyUsers.add(userId);
+            return false;
+        }
+    }
+
+    private static Map<String, ScoreUpdate> overwritesOf(final Map<String, Long> scores) {
+        final Map<String, ScoreUpdate> overwrites = new HashMap<>();
+        scores.forEach((event, score) -> overwrites.put(event, ScoreUpdate.set(score)));
+        return overwrites;
+    }
+
+    private synchronized void flushAndEvict() {
+        try {
+            flush();
+            evictIdleAndExcessUsers();
+        } catch (RuntimeException e) {
+            LOG.error("Failed to flush the cached owner state", e);
+        }
+    }
+
+    private void evictIdleAndExcessUsers() {
+        final long now = System.nanoTime();
+        final List<Eviction> candidates = new ArrayList<>(users.size());
+        users.forEach((userId, state) -> candidates.add(new Eviction(userId, state, state.lastAccess)));
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+        int excess = candidates.size() - maxUsers;
+        for (Eviction candidate : candidates) {
+            if ((excess > 0 || now - candidate.lastAccess > idleTimeoutNanos) && evict(candidate)) {
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Evicts the owner unless its state was accessed since the candidates were collected or its pending counter
+     * updates can not be written.
+     *
+     * @return {@code true} if the owner is evicted.
+     */
+    private boolean evict(final Eviction candidate) {
+        final UserState state = candidate.state;
+        synchronized (state) {
+            if (state.evicted || state.lastAccess != candidate.lastAccess) {
+                return false;
+            }
+            if (!state.dirtyScores.isEmpty() && !write(candidate.userId, state)) {
+                return false;
+            }
+            state.evicted = true;
+            users.remove(candidate.userId, state);
+            return true;
+        }
+    }
+
+    /**
+     * Stops the write-behind flushes and writes every pending counter update to the backing store.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private static final class Eviction {
+
+        private final String userId;
+        private final UserState state;
+        private final long lastAccess;
+
+        private Eviction(final String userId, final UserState state, final long lastAccess) {
+            this.userId = userId;
+            this.state = state;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Cached state of one owner. Every field is guarded by the monitor of the state.
+     */
+    private static final class UserState {
+
+        private final Map<String, Long> scores = new HashMap<>();
+        private final Map<String, Long> dirtyScores = new HashMap<>();
+        private final Map<String, Boolean> unlocked = new HashMap<>();
+        private final Map<String, Map<Integer, Boolean>> unlockedLevels = new HashMap<>();
+        private volatile long lastAccess = System.nanoTime();
+        private boolean evicted;
+
+        private Map<Integer, Boolean> levelsOf(final String achievementId) {
+            return unlockedLevels.computeIfAbsent(achievementId, id -> new HashMap<>());
+        }
+
+        private Boolean getLevelUnlocked(final String achievementId, final Integer level) {
+            final Map<Integer, Boolean> levels = unlockedLevels.get(achievementId);
+            return levels != null ? levels.get(level) : null;
+        }
+
+        private void markUnlocked(final String achievementId, final Integer level) {
+            unlocked.put(achievementId, Boolean.TRUE);
+            levelsOf(achievementId).put(level, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package net.csongradyp.badger.repository.file;
+
+/**
+ * Defines when the appended mutations of a {@link MappedLogBadgerRepository} are forced to the storage device.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Every mutation is forced before the repository call returns.
+     */
+    ALWAYS,
+    /**
+     * Mutations are forced periodically, a crash may lose the mutations of the last interval.
+     */
+    INTERVAL,
+    /**
+     * Mutations are forced only when a segment is completed or the repository is closed, otherwise the operating system decides.
+     */
+    NEVER
+}
@@ -0,0 +1,359 @@
+package net.csongradyp.badger.repository.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import net.csongradyp.badger.domain.IAchievementBean;
+import net.csongradyp.badger.exception.RepositoryException;
+import net.csongradyp.badger.repository.BadgerRepository;
+import net.csongradyp.badger.repository.ScoreChange;
+import net.csongradyp.badger.repository.ScoreUpdate;
+import net.csongradyp.badger.repository.memory.InMemoryBadgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable {@link BadgerRepository} stored in a local directory without an external database.
+ * <ul>
+ * <li>Reads are answered by an {@link InMemoryBadgerRepository} index.</li>
+ * <li>Every mutation is applied to the index and appended as an absolute, idempotent record to a memory-mapped
+ * segment log. Mutations of the same owner are serialized by lock striping, so their records are logged in the
+ * order they were applied.</li>
+ * <li>The log is periodically compacted into a snapshot file, after which the covered segments are deleted.</li>
+ * <li>On startup the latest snapshot is loaded and the segments written after it are replayed.</li>
+ * </ul>
+ * Durability of the appended records is controlled by the {@link FsyncPolicy}. Call {@link #close()} on shutdown.
+ */
+public class MappedLogBadgerRepository implements BadgerRepository, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedLogBadgerRepository.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final int STRIPE_COUNT = 256;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{20})\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{20})\\.snap");
+
+    private final Path directory;
+    private final InMemoryBadgerRepository index = new InMemoryBadgerRepository();
+    private final Object[] stripes = new Object[STRIPE_COUNT];
+    private final Object compactionLock = new Object();
+    private final SegmentLog log;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Opens the repository with {@link FsyncPolicy#INTERVAL} fsync policy and the default intervals and segment size.
+     *
+     * @param directory directory of the log segments and snapshots. Created if it does not exist.
+     */
+    public MappedLogBadgerRepository(final Path directory) {
+        this(directory, FsyncPolicy.INTERVAL, DEFAULT_FSYNC_INTERVAL_MILLIS, DEFAULT_COMPACTION_INTERVAL_MILLIS, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param directory                directory of the log segments and snapshots. Created if it does not exist.
+     * @param fsyncPolicy              defines when appended mutations are forced to the storage device.
+     * @param fsyncIntervalMillis      time between forces of the {@link FsyncPolicy#INTERVAL} policy.
+     * @param compactionIntervalMillis time between compactions, non-positive to compact only on {@link #compact()} calls.
+     * @param segmentSize              size of the memory-mapped log segment files in bytes.
+     */
+    public MappedLogBadgerRepository(final Path directory, final FsyncPolicy fsyncPolicy, final long fsyncIntervalMillis,
+                                     final long compactionIntervalMillis, final int segmentSize) {
+        this.directory = directory;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Object();
+        }
+        log = new SegmentLog(directory, segmentSize, fsyncPolicy, recover());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "badger-log-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            scheduler.scheduleWithFixedDelay(() -> runMaintenance(log::force), fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        if (compactionIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(() -> runMaintenance(this::compact), compactionIntervalMillis, compactionIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Loads the latest snapshot and replays the segments written after it.
+     *
+     * @return number of the first segment to write.
+     */
+    private long recover() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to create repository directory " + directory, e);
+        }
+        final long snapshotNumber = findFileNumbers(SNAPSHOT_NAME).stream().max(Long::compare).orElse(0L);
+        if (snapshotNumber > 0) {
+            SnapshotFile.read(SnapshotFile.snapshotPath(directory, snapshotNumber), index);
+        }
+        long nextSegment = Math.max(snapshotNumber, 1);
+        final List<Long> segments = findFileNumbers(SEGMENT_NAME);
+        Collections.sort(segments);
+        for (long segment : segments) {
+            if (segment >= snapshotNumber) {
+                SegmentLog.replay(SegmentLog.segmentPath(directory, segment), this::replay);
+                nextSegment = Math.max(nextSegment, segment + 1);
+            }
+        }
+        LOG.debug("Recovered repository from snapshot {} and {} log segments", snapshotNumber, segments.size());
+        return nextSegment;
+    }
+
+    private void replay(final byte type, final String userId, final String key, final long value, final long timestamp, final int level) {
+        if (type == SegmentLog.SCORE) {
+            index.setScore(userId, key, value);
+        } else if (type == SegmentLog.UNLOCK) {
+            index.restoreUnlock(userId, key, timestamp, level);
+        } else if (type == SegmentLog.RESET_COUNTERS) {
+            index.resetCounters(userId);
+        } else if (type == SegmentLog.CLEAR_ACHIEVEMENTS) {
+            index.clearAchievements(userId);
+        }
+    }
+
+    private List<Long> findFileNumbers(final Pattern namePattern) {
+        final List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                final Matcher matcher = namePattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to list repository directory " + directory, e);
+        }
+        return numbers;
+    }
+
+    /**
+     * Writes the current state into a new snapshot and deletes the log segments and snapshots it supersedes.
+     * Mutations are not blocked while the snapshot is written.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            final long snapshotNumber = log.roll();
+            SnapshotFile.write(directory, snapshotNumber, index);
+            deleteFilesBefore(SEGMENT_NAME, snapshotNumber);
+            deleteFilesBefore(SNAPSHOT_NAME, snapshotNumber);
+        }
+    }
+
+    private void deleteFilesBefore(final Pattern namePattern, final long number) {
+        for (long fileNumber : findFileNumbers(namePattern)) {
+            if (fileNumber < number) {
+                final Path file = namePattern == SEGMENT_NAME ? SegmentLog.segmentPath(directory, fileNumber) : SnapshotFile.snapshotPath(directory, fileNumber);
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOG.warn("Failed to delete compacted file {}", file, e);
+                }
+            }
+        }
+    }
+
+    private void runMaintenance(final Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOG.error("Repository maintenance failed in {}", directory, e);
+        }
+    }
+
+    private Object stripeOf(final String userId) {
+        final int hash = userId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+    }
+
+    private Long logScore(final String userId, final String event, final Long score) {
+        log.append(SegmentLog.SCORE, userId, event, score, 0L, 0);
+        return score;
+    }
+
+    private void logUnlock(final String userId, final String achievementId, final int level) {
+        log.append(SegmentLog.UNLOCK, userId, achievementId, 0L, index.getAcquireDate(userId, achievementId).getTime(), level);
+    }
+
+    @Override
+    public Long increment(final String userId, final String event) {
+        synchronized (stripeOf(userId)) {
+            return logScore(userId, event, index.increment(userId, event));
+        }
+    }
+
+    @Override
+    public Long increment(final String userId, final String event, final Long amount) {
+        synchronized (stripeOf(userId)) {
+            return logScore(userId, event, index.increment(userId, event, amount));
+        }
+    }
+
+    @Override
+    public Long setScore(final String userId, final String event, final Long newScore) {
+        synchronized (stripeOf(userId)) {
+            return logScore(userId, event, index.setScore(userId, event, newScore));
+        }
+    }
+
+    @Override
+    public Map<String, ScoreChange> updateScores(final String userId, final Map<String, ScoreUpdate> updates) {
+        synchronized (stripeOf(userId)) {
+            final Map<String, ScoreChange> scoreChanges = index.updateScores(userId, updates);
+            scoreChanges.forEach((event, scoreChange) -> {
+                if (scoreChange.isChanged()) {
+                    logScore(userId, event, scoreChange.getNewScore());
+                }
+            });
+            return scoreChanges;
+        }
+    }
+
+    @Override
+    public ScoreChange setScoreIfDifferent(final String userId, final String event, final Long score) {
+        synchronized (stripeOf(userId)) {
+            final ScoreChange scoreChange = index.setScoreIfDifferent(userId, event, score);
+            if (scoreChange.isChanged()) {
+                logScore(userId, event, scoreChange.getNewScore());
+            }
+            return scoreChange;
+        }
+    }
+
+    @Override
+    public ScoreChange setScoreIfGreater(final String userId, final String event, final Long score) {
+        synchronized (stripeOf(userId)) {
+            final ScoreChange scoreChange = index.setScoreIfGreater(userId, event, score);
+            if (scoreChange.isChanged()) {
+                logScore(userId, event, scoreChange.getNewScore());
+            }
+            return scoreChange;
+        }
+    }
+
+    @Override
+    public Long scoreOf(final String userId, final String event) {
+        return index.scoreOf(userId, event);
+    }
+
+    @Override
+    public Boolean resetCounters(final String userId) {
+        synchronized (stripeOf(userId)) {
+            final Boolean reset = index.resetCounters(userId);
+            log.append(SegmentLog.RESET_COUNTERS, userId, null, 0L, 0L, 0);
+            return reset;
+        }
+    }
+
+    @Override
+    public void unlock(final String userId, final String achievementId) {
+        synchronized (stripeOf(userId)) {
+            if (!index.isUnlocked(userId, achievementId)) {
+                index.unlock(userId, achievementId);
+                logUnlock(userId, achievementId, -1);
+            }
+        }
+    }
+
+    @Override
+    public void unlock(final String userId, final String achievementId, final Integer level) {
+        unlockIfAbsent(userId, achievementId, level);
+    }
+
+    @Override
+    public void unlock(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        unlockIfAbsent(userId, levels);
+    }
+
+    @Override
+    public boolean unlockIfAbsent(final String userId, final String achievementId, final Integer level) {
+        synchronized (stripeOf(userId)) {
+            final boolean unlocked = index.unlockIfAbsent(userId, achievementId, level);
+            if (unlocked) {
+                logUnlock(userId, achievementId, level);
+            }
+            return unlocked;
+        }
+    }
+
+    @Override
+    public Map<String, Set<Integer>> unlockIfAbsent(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        synchronized (stripeOf(userId)) {
+            final Map<String, Set<Integer>> newLevels = index.unlockIfAbsent(userId, levels);
+            newLevels.forEach((achievementId, achievementLevels) -> achievementLevels.forEach(level -> logUnlock(userId, achievementId, level)));
+            return newLevels;
+        }
+    }
+
+    @Override
+    public void clearAchievements(final String userId) {
+        synchronized (stripeOf(userId)) {
+            index.clearAchievements(userId);
+            log.append(SegmentLog.CLEAR_ACHIEVEMENTS, userId, null, 0L, 0L, 0);
+        }
+    }
+
+    @Override
+    public Long getNumberOfUnlocked() {
+        return index.getNumberOfUnlocked();
+    }
+
+    @Override
+    public Collection<IAchievementBean> getAll(final String userId) {
+        return index.getAll(userId);
+    }
+
+    @Override
+    public Boolean isUnlocked(final String userId, final String id) {
+        return index.isUnlocked(userId, id);
+    }
+
+    @Override
+    public Boolean isUnlocked(final String userId, final String id, final Integer level) {
+        return index.isUnlocked(userId, id, level);
+    }
+
+    @Override
+    public Map<String, Set<Integer>> getUnlockedLevels(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        return index.getUnlockedLevels(userId, levels);
+    }
+
+    @Override
+    public Date getAcquireDate(final String userId, final String achievementId) {
+        return index.getAcquireDate(userId, achievementId);
+    }
+
+    /**
+     * Stops the periodic maintenance and forces the log to the storage device.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+}
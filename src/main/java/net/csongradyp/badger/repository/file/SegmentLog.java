@@ -0,0 +1,168 @@
+package net.csongradyp.badger.repository.file;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import net.csongradyp.badger.exception.RepositoryException;
+
+/**
+ * Append-only log of repository mutations written into fixed size memory-mapped segment files.
+ * Every record is framed by its length and CRC32 checksum, so replay stops at the first torn or unwritten record.
+ */
+class SegmentLog implements AutoCloseable {
+
+    static final byte SCORE = 1;
+    static final byte UNLOCK = 2;
+    static final byte RESET_COUNTERS = 3;
+    static final byte CLEAR_ACHIEVEMENTS = 4;
+
+    private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_STRING_SIZE = 0xFFFF;
+    private static final int MAX_RECORD_SIZE = 1 + 2 * (Short.BYTES + MAX_STRING_SIZE) + Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_SIZE);
+    private final CRC32 checksum = new CRC32();
+    private long segmentNumber;
+    private RandomAccessFile segmentFile;
+    private MappedByteBuffer segment;
+
+    /**
+     * @param segmentNumber number of the first segment to write. Existing segments are never appended.
+     */
+    SegmentLog(final Path directory, final int segmentSize, final FsyncPolicy fsyncPolicy, final long segmentNumber) {
+        if (segmentSize < FRAME_HEADER_SIZE + MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + (FRAME_HEADER_SIZE + MAX_RECORD_SIZE) + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.segmentNumber = segmentNumber;
+        open();
+    }
+
+    static Path segmentPath(final Path directory, final long segmentNumber) {
+        return directory.resolve(String.format("segment-%020d.log", segmentNumber));
+    }
+
+    private void open() {
+        try {
+            segmentFile = new RandomAccessFile(segmentPath(directory, segmentNumber).toFile(), "rw");
+            segment = segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to open log segment " + segmentNumber + " in " + directory, e);
+        }
+    }
+
+    synchronized void append(final byte type, final String userId, final String key, final long value, final long timestamp, final int level) {
+        record.clear();
+        record.put(type);
+        putString(userId);
+        putString(key);
+        record.putLong(value);
+        record.putLong(timestamp);
+        record.putInt(level);
+        record.flip();
+        if (segment.remaining() < FRAME_HEADER_SIZE + record.remaining()) {
+            roll();
+        }
+        checksum.reset();
+        checksum.update(record.array(), 0, record.limit());
+        segment.putInt(record.limit());
+        segment.putInt((int) checksum.getValue());
+        segment.put(record);
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            segment.force();
+        }
+    }
+
+    private void putString(final String value) {
+        final byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > MAX_STRING_SIZE) {
+            throw new RepositoryException("Value is too long to be logged: " + value);
+        }
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    /**
+     * Completes the current segment and continues the log in a new one.
+     *
+     * @return number of the new segment. Every mutation appended before the call is in a lower numbered segment.
+     */
+    synchronized long roll() {
+        closeSegment();
+        segmentNumber++;
+        open();
+        return segmentNumber;
+    }
+
+    synchronized void force() {
+        segment.force();
+    }
+
+    private void closeSegment() {
+        segment.force();
+        try {
+            segmentFile.close();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to close log segment " + segmentNumber + " in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    /**
+     * Replays every intact record of the given segment in append order.
+     */
+    static void replay(final Path segmentPath, final RecordHandler handler) {
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath.toFile(), "r")) {
+            final MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            final CRC32 crc = new CRC32();
+            final byte[] payload = new byte[MAX_RECORD_SIZE];
+            while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+                final int length = buffer.getInt();
+                final int expectedChecksum = buffer.getInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE || length > buffer.remaining()) {
+                    return;
+                }
+                buffer.get(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != expectedChecksum) {
+                    return;
+                }
+                final ByteBuffer recordBuffer = ByteBuffer.wrap(payload, 0, length);
+                final byte type = recordBuffer.get();
+                final String userId = getString(recordBuffer);
+                final String key = getString(recordBuffer);
+                handler.onRecord(type, userId, key, recordBuffer.getLong(), recordBuffer.getLong(), recordBuffer.getInt());
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to replay log segment " + segmentPath, e);
+        }
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        final int length = buffer.getShort() & 0xFFFF;
+        final String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+
+        void onRecord(byte type, String userId, String key, long value, long timestamp, int level);
+    }
+}
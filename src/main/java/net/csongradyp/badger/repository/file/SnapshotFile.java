@@ -0,0 +1,125 @@
+package net.csongradyp.badger.repository.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import net.csongradyp.badger.exception.RepositoryException;
+import net.csongradyp.badger.repository.memory.InMemoryBadgerRepository;
+
+/**
+ * Compacted copy of the whole repository state. A snapshot numbered {@code n} contains every mutation of the log
+ * segments numbered below {@code n}, and may contain some of the later ones, which replay idempotently on top of it.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x42444753;
+    private static final int VERSION = 1;
+    private static final byte SCORE = 1;
+    private static final byte UNLOCK = 2;
+    private static final byte END = 0;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SnapshotFile() {
+    }
+
+    static Path snapshotPath(final Path directory, final long segmentNumber) {
+        return directory.resolve(String.format("snapshot-%020d.snap", segmentNumber));
+    }
+
+    /**
+     * Writes the state into a temporary file and moves it atomically to its final place.
+     */
+    static void write(final Path directory, final long segmentNumber, final InMemoryBadgerRepository state) {
+        final Path snapshot = snapshotPath(directory, segmentNumber);
+        final Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                state.visit(new InMemoryBadgerRepository.StateVisitor() {
+                    @Override
+                    public void onScore(final String userId, final String event, final long score) {
+                        write(() -> {
+                            output.writeByte(SCORE);
+                            output.writeUTF(userId);
+                            output.writeUTF(event);
+                            output.writeLong(score);
+                        });
+                    }
+
+                    @Override
+                    public void onUnlock(final String userId, final String achievementId, final long acquiredAt, final int[] levels) {
+                        write(() -> {
+                            output.writeByte(UNLOCK);
+                            output.writeUTF(userId);
+                            output.writeUTF(achievementId);
+                            output.writeLong(acquiredAt);
+                            output.writeInt(levels.length);
+                            for (int level : levels) {
+                                output.writeInt(level);
+                            }
+                        });
+                    }
+                });
+                output.writeByte(END);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RepositoryException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // the failure of the snapshot is reported below
+            }
+            throw new RepositoryException("Failed to write snapshot " + snapshot, e);
+        }
+    }
+
+    private static void write(final SnapshotWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to write snapshot entry", e);
+        }
+    }
+
+    static void read(final Path snapshot, final InMemoryBadgerRepository state) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), BUFFER_SIZE))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new RepositoryException("Unsupported snapshot format: " + snapshot);
+            }
+            byte type = input.readByte();
+            while (type != END) {
+                final String userId = input.readUTF();
+                final String key = input.readUTF();
+                if (type == SCORE) {
+                    state.setScore(userId, key, input.readLong());
+                } else if (type == UNLOCK) {
+                    final long acquiredAt = input.readLong();
+                    final int levelCount = input.readInt();
+                    if (levelCount == 0) {
+                        state.restoreUnlock(userId, key, acquiredAt, -1);
+                    }
+                    for (int i = 0; i < levelCount; i++) {
+                        state.restoreUnlock(userId, key, acquiredAt, input.readInt());
+                    }
+                } else {
+                    throw new RepositoryException("Corrupted snapshot: " + snapshot);
+                }
+                type = input.readByte();
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to read snapshot " + snapshot, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWrite {
+
+        void run() throws IOException;
+    }
+}
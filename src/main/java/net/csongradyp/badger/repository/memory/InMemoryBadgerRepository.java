@@ -0,0 +1,386 @@
+package net.csongradyp.badger.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import net.csongradyp.badger.domain.IAchievementBean;
+import net.csongradyp.badger.domain.achievement.SingleAchievementBean;
+import net.csongradyp.badger.repository.BadgerRepository;
+import net.csongradyp.badger.repository.ScoreChange;
+import net.csongradyp.badger.repository.ScoreUpdate;
+
+/**
+ * Thread safe {@link BadgerRepository} which keeps every state in memory without a global lock.
+ * <ul>
+ * <li>Event counters are {@link AtomicLong}s, so counter updates are lock-free.</li>
+ * <li>Achievement ids are interned to dense indexes and the unlocked levels of an owner are kept in a compact
+ * per-achievement bitset. Unlocks are serialized per owner, reads are lock-free.</li>
+ * <li>{@link #getNumberOfUnlocked()}, {@link #resetCounters(String)} and {@link #clearAchievements(String)} run in constant time.</li>
+ * </ul>
+ * {@link #getNumberOfUnlocked()} counts the unlocked achievements of every owner, regardless of their levels.
+ */
+public class InMemoryBadgerRepository implements BadgerRepository {
+
+    private final Map<String, UserState> users = new ConcurrentHashMap<>();
+    private final Map<String, Integer> achievementIndexes = new ConcurrentHashMap<>();
+    private final List<String> achievementIds = new CopyOnWriteArrayList<>();
+    private final AtomicLong numberOfUnlocked = new AtomicLong();
+
+    private UserState userState(final String userId) {
+        final UserState state = users.get(userId);
+        return state != null ? state : users.computeIfAbsent(userId, id -> new UserState());
+    }
+
+    private int intern(final String achievementId) {
+        final Integer index = achievementIndexes.get(achievementId);
+        return index != null ? index : internNew(achievementId);
+    }
+
+    private synchronized int internNew(final String achievementId) {
+        Integer index = achievementIndexes.get(achievementId);
+        if (index == null) {
+            index = achievementIds.size();
+            achievementIds.add(achievementId);
+            achievementIndexes.put(achievementId, index);
+        }
+        return index;
+    }
+
+    private AtomicLong counter(final String userId, final String event) {
+        final Map<String, AtomicLong> counters = userState(userId).counters;
+        final AtomicLong counter = counters.get(event);
+        return counter != null ? counter : counters.computeIfAbsent(event, key -> new AtomicLong());
+    }
+
+    @Override
+    public Long increment(final String userId, final String event) {
+        return counter(userId, event).incrementAndGet();
+    }
+
+    @Override
+    public Long increment(final String userId, final String event, final Long amount) {
+        return counter(userId, event).addAndGet(amount);
+    }
+
+    @Override
+    public Long setScore(final String userId, final String event, final Long newScore) {
+        counter(userId, event).set(newScore);
+        return newScore;
+    }
+
+    @Override
+    public Map<String, ScoreChange> updateScores(final String userId, final Map<String, ScoreUpdate> updates) {
+        final Map<String, AtomicLong> counters = userState(userId).counters;
+        final Map<String, ScoreChange> scoreChanges = new LinkedHashMap<>();
+        updates.forEach((event, update) -> {
+            final AtomicLong counter = counters.computeIfAbsent(event, key -> new AtomicLong());
+            if (update.getScore() == null) {
+                final long newScore = counter.addAndGet(update.getIncrements());
+                scoreChanges.put(event, new ScoreChange(newScore - update.getIncrements(), newScore));
+            } else {
+                final long newScore = update.getScore() + update.getIncrements();
+                scoreChanges.put(event, new ScoreChange(counter.getAndSet(newScore), newScore));
+            }
+        });
+        return scoreChanges;
+    }
+
+    @Override
+    public ScoreChange setScoreIfDifferent(final String userId, final String event, final Long score) {
+        return new ScoreChange(counter(userId, event).getAndSet(score), score);
+    }
+
+    @Override
+    public ScoreChange setScoreIfGreater(final String userId, final String event, final Long score) {
+        final AtomicLong counter = counter(userId, event);
+        final long oldScore = counter.getAndAccumulate(score, Math::max);
+        return new ScoreChange(oldScore, Math.max(oldScore, score));
+    }
+
+    @Override
+    public Long scoreOf(final String userId, final String event) {
+        final UserState state = users.get(userId);
+        final AtomicLong counter = state != null ? state.counters.get(event) : null;
+        return counter != null ? counter.get() : 0L;
+    }
+
+    @Override
+    public Boolean resetCounters(final String userId) {
+        userState(userId).counters = new ConcurrentHashMap<>();
+        return true;
+    }
+
+    @Override
+    public void unlock(final String userId, final String achievementId) {
+        final UserState state = userState(userId);
+        synchronized (state) {
+            unlockAchievement(state, intern(achievementId));
+        }
+    }
+
+    @Override
+    public void unlock(final String userId, final String achievementId, final Integer level) {
+        unlockIfAbsent(userId, achievementId, level);
+    }
+
+    @Override
+    public void unlock(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        unlockIfAbsent(userId, levels);
+    }
+
+    @Override
+    public boolean unlockIfAbsent(final String userId, final String achievementId, final Integer level) {
+        final UserState state = userState(userId);
+        synchronized (state) {
+            return unlockLevel(state, intern(achievementId), level);
+        }
+    }
+
+    @Override
+    public Map<String, Set<Integer>> unlockIfAbsent(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        final UserState state = userState(userId);
+        final Map<String, Set<Integer>> newLevels = new LinkedHashMap<>();
+        synchronized (state) {
+            levels.forEach((achievementId, achievementLevels) -> {
+                final int achievementIndex = intern(achievementId);
+                achievementLevels.forEach(level -> {
+                    if (unlockLevel(state, achievementIndex, level)) {
+                        newLevels.computeIfAbsent(achievementId, id -> new TreeSet<>()).add(level);
+                    }
+                });
+            });
+        }
+        return newLevels;
+    }
+
+    private LevelBits unlockAchievement(final UserState state, final int achievementIndex) {
+        return unlockAchievement(state, achievementIndex, System.currentTimeMillis());
+    }
+
+    private LevelBits unlockAchievement(final UserState state, final int achievementIndex, final long acquiredAt) {
+        AtomicReferenceArray<LevelBits> unlocks = state.unlocks;
+        if (achievementIndex >= unlocks.length()) {
+            final AtomicReferenceArray<LevelBits> grown = new AtomicReferenceArray<>(Math.max(achievementIndex + 1, unlocks.length() * 2));
+            for (int i = 0; i < unlocks.length(); i++) {
+                grown.set(i, unlocks.get(i));
+            }
+            state.unlocks = grown;
+            unlocks = grown;
+        }
+        LevelBits levelBits = unlocks.get(achievementIndex);
+        if (levelBits == null) {
+            levelBits = new LevelBits(acquiredAt);
+            unlocks.set(achievementIndex, levelBits);
+            state.numberOfUnlocked++;
+            numberOfUnlocked.incrementAndGet();
+        }
+        return levelBits;
+    }
+
+    private boolean unlockLevel(final UserState state, final int achievementIndex, final Integer level) {
+        final LevelBits levelBits = unlockAchievement(state, achievementIndex);
+        if (levelBits.contains(level)) {
+            return false;
+        }
+        levelBits.add(level);
+        return true;
+    }
+
+    private LevelBits levelBits(final String userId, final String achievementId) {
+        final UserState state = users.get(userId);
+        final Integer achievementIndex = achievementIndexes.get(achievementId);
+        if (state == null || achievementIndex == null) {
+            return null;
+        }
+        final AtomicReferenceArray<LevelBits> unlocks = state.unlocks;
+        return achievementIndex < unlocks.length() ? unlocks.get(achievementIndex) : null;
+    }
+
+    @Override
+    public void clearAchievements(final String userId) {
+        final UserState state = userState(userId);
+        synchronized (state) {
+            state.unlocks = new AtomicReferenceArray<>(0);
+            numberOfUnlocked.addAndGet(-state.numberOfUnlocked);
+            state.numberOfUnlocked = 0;
+        }
+    }
+
+    @Override
+    public Long getNumberOfUnlocked() {
+        return numberOfUnlocked.get();
+    }
+
+    @Override
+    public Collection<IAchievementBean> getAll(final String userId) {
+        final UserState state = users.get(userId);
+        if (state == null) {
+            return new ArrayList<>();
+        }
+        final AtomicReferenceArray<LevelBits> unlocks = state.unlocks;
+        final Collection<IAchievementBean> unlocked = new ArrayList<>();
+        for (int i = 0; i < unlocks.length(); i++) {
+            if (unlocks.get(i) != null) {
+                final SingleAchievementBean achievement = new SingleAchievementBean();
+                achievement.setId(achievementIds.get(i));
+                unlocked.add(achievement);
+            }
+        }
+        return unlocked;
+    }
+
+    @Override
+    public Boolean isUnlocked(final String userId, final String id) {
+        return levelBits(userId, id) != null;
+    }
+
+    @Override
+    public Boolean isUnlocked(final String userId, final String id, final Integer level) {
+        final LevelBits levelBits = levelBits(userId, id);
+        return levelBits != null && levelBits.contains(level);
+    }
+
+    @Override
+    public Map<String, Set<Integer>> getUnlockedLevels(final String userId, final Map<String, ? extends Collection<Integer>> levels) {
+        final Map<String, Set<Integer>> unlockedLevels = new HashMap<>();
+        levels.forEach((achievementId, achievementLevels) -> {
+            final LevelBits levelBits = levelBits(userId, achievementId);
+            if (levelBits != null) {
+                achievementLevels.forEach(level -> {
+                    if (levelBits.contains(level)) {
+                        unlockedLevels.computeIfAbsent(achievementId, id -> new TreeSet<>()).add(level);
+                    }
+                });
+            }
+        });
+        return unlockedLevels;
+    }
+
+    @Override
+    public Date getAcquireDate(final String userId, final String achievementId) {
+        final LevelBits levelBits = levelBits(userId, achievementId);
+        return levelBits != null ? new Date(levelBits.acquiredAt) : null;
+    }
+
+    /**
+     * Restores an unlocked achievement level with its original acquire date, used when the state is loaded from a persistent copy.
+     *
+     * @param level unlocked level or a negative value if only the achievement itself is unlocked.
+     */
+    public void restoreUnlock(final String userId, final String achievementId, final long acquiredAt, final int level) {
+        final UserState state = userState(userId);
+        synchronized (state) {
+            final LevelBits levelBits = unlockAchievement(state, intern(achievementId), acquiredAt);
+            if (level >= 0) {
+                levelBits.add(level);
+            }
+        }
+    }
+
+    /**
+     * Passes every stored counter and unlocked achievement to the visitor. The visit is not atomic, state changed
+     * concurrently may or may not be visited.
+     */
+    public void visit(final StateVisitor visitor) {
+        users.forEach((userId, state) -> {
+            state.counters.forEach((event, counter) -> visitor.onScore(userId, event, counter.get()));
+            final AtomicReferenceArray<LevelBits> unlocks = state.unlocks;
+            for (int i = 0; i < unlocks.length(); i++) {
+                final LevelBits levelBits = unlocks.get(i);
+                if (levelBits != null) {
+                    visitor.onUnlock(userId, achievementIds.get(i), levelBits.acquiredAt, levelBits.toArray());
+                }
+            }
+        });
+    }
+
+    public interface StateVisitor {
+
+        void onScore(String userId, String event, long score);
+
+        /**
+         * @param levels unlocked levels of the achievement in ascending order. Empty if only the achievement itself is unlocked.
+         */
+        void onUnlock(String userId, String achievementId, long acquiredAt, int[] levels);
+    }
+
+    /**
+     * State of one owner. Counters are updated lock-free, unlocks are written under the monitor of the state.
+     */
+    private static final class UserState {
+
+        private volatile Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+        private volatile AtomicReferenceArray<LevelBits> unlocks = new AtomicReferenceArray<>(0);
+        private int numberOfUnlocked;
+    }
+
+    /**
+     * Unlocked levels of one achievement. Levels 0 to 63 are kept in one {@code long} bitset, other levels in an overflow set.
+     * Written under the monitor of the owner's state.
+     */
+    private static final class LevelBits {
+
+        private static final int INLINE_LEVELS = Long.SIZE;
+
+        private final long acquiredAt;
+        private volatile long bits;
+        private volatile Set<Integer> overflowLevels;
+
+        private LevelBits(final long acquiredAt) {
+            this.acquiredAt = acquiredAt;
+        }
+
+        private static boolean isInline(final int level) {
+            return level >= 0 && level < INLINE_LEVELS;
+        }
+
+        private boolean contains(final Integer level) {
+            if (isInline(level)) {
+                return (bits & (1L << level)) != 0;
+            }
+            final Set<Integer> overflow = overflowLevels;
+            return overflow != null && overflow.contains(level);
+        }
+
+        private int[] toArray() {
+            final Set<Integer> overflow = overflowLevels;
+            final int[] levels = new int[Long.bitCount(bits) + (overflow != null ? overflow.size() : 0)];
+            int count = 0;
+            for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+                levels[count++] = Long.numberOfTrailingZeros(remaining);
+            }
+            if (overflow != null) {
+                for (Integer level : overflow) {
+                    if (count < levels.length) {
+                        levels[count++] = level;
+                    }
+                }
+            }
+            final int[] visited = count == levels.length ? levels : Arrays.copyOf(levels, count);
+            Arrays.sort(visited);
+            return visited;
+        }
+
+        private void add(final Integer level) {
+            if (isInline(level)) {
+                bits |= 1L << level;
+            } else {
+                if (overflowLevels == null) {
+                    overflowLevels = ConcurrentHashMap.newKeySet();
+                }
+                overflowLevels.add(level);
+            }
+        }
+    }
+}